@@ -0,0 +1,70 @@
+package com.anthonyzero.eventbus.benchmark;
+
+import com.anthonyzero.eventbus.core.metadata.Message;
+import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.support.Trigger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订阅方法调用开销：反射调用（Method.invoke）与触发器调用（LambdaMetafactory生成的调用器）对比
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokerBenchmark {
+    private Handler handler;
+    private Method method;
+    private Trigger trigger;
+    private Request<String> request;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        handler = new Handler();
+        method = Handler.class.getMethod("onMessage", Message.class);
+        trigger = Trigger.of(handler, method);
+        request = Request.<String>builder().code("benchmark").requestId("1").deliverCount(1).body("body").build();
+    }
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return method.invoke(handler, request);
+    }
+
+    @Benchmark
+    public Object trigger() throws Throwable {
+        return trigger.invoke(request);
+    }
+
+    @Benchmark
+    public Object direct() {
+        handler.onMessage(request);
+        return null;
+    }
+
+    /**
+     * 订阅方法
+     */
+    public static class Handler {
+        private long count;
+
+        public void onMessage(Message<String> message) {
+            count += message.getBody().length();
+        }
+    }
+}
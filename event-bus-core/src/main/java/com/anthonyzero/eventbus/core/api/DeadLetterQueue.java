@@ -0,0 +1,18 @@
+package com.anthonyzero.eventbus.core.api;
+
+import com.anthonyzero.eventbus.core.metadata.Request;
+
+/**
+ * 死信队列，消息重试投递全部失败后写入，可由具体实现重新投递
+ *
+ */
+public interface DeadLetterQueue {
+
+    /**
+     * 写入死信
+     *
+     * @param request   最后一次投递失败的消息
+     * @param throwable 最后一次投递失败的原始异常
+     */
+    void add(Request<?> request, Throwable throwable);
+}
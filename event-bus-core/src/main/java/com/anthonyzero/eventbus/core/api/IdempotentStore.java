@@ -0,0 +1,26 @@
+package com.anthonyzero.eventbus.core.api;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 消费幂等的共享存储，多节点共用已处理消息的记录；未配置时只使用本地缓存
+ *
+ */
+public interface IdempotentStore {
+
+    /**
+     * 批量查询已处理的记录
+     *
+     * @param keys 记录标识
+     * @return 已处理的记录标识
+     */
+    Set<String> contains(Collection<String> keys);
+
+    /**
+     * 批量写入已处理的记录
+     *
+     * @param keys 记录标识
+     */
+    void add(Collection<String> keys);
+}
@@ -0,0 +1,56 @@
+package com.anthonyzero.eventbus.core.api;
+
+import com.anthonyzero.eventbus.core.exception.BatchDeliverException;
+import com.anthonyzero.eventbus.core.metadata.Message;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 及时消息批量订阅超类，一次接收单次拉取的全部消息，整批消息处理完成后统一确认；
+ * 抛出{@link BatchDeliverException}时只有其中的消息按失败处理（重试、失败回调），其他异常则整批按失败处理
+ *
+ */
+public abstract class MsgBatchListener<T> extends MsgListener<T> {
+
+    protected MsgBatchListener() {
+        super();
+    }
+
+    protected MsgBatchListener(String code) {
+        super(code);
+    }
+
+    protected MsgBatchListener(String code, Integer concurrency) {
+        super(code, concurrency);
+    }
+
+    protected MsgBatchListener(List<String> codes) {
+        super(codes);
+    }
+
+    protected MsgBatchListener(List<String> codes, Integer concurrency) {
+        super(codes, concurrency);
+    }
+
+    protected MsgBatchListener(String serviceId, List<String> codes, Integer concurrency) {
+        super(serviceId, codes, concurrency);
+    }
+
+    /**
+     * 单条消息按批量处理（失败重试投递时）
+     *
+     * @param message 消息体
+     */
+    @Override
+    public final void onMessage(Message<T> message) {
+        onMessages(Collections.singletonList(message));
+    }
+
+    /**
+     * 批量处理器
+     *
+     * @param messages 消息
+     */
+    public abstract void onMessages(List<Message<T>> messages);
+}
@@ -2,6 +2,12 @@ package com.anthonyzero.eventbus.core.api;
 
 import com.anthonyzero.eventbus.core.metadata.MsgBody;
 import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.metadata.SendResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *  消息生产者（由底层实现）
@@ -38,7 +44,7 @@ public interface MsgSender {
      * @param body      消息体
      */
     default void send(String serviceId, MsgBody body) {
-        send(serviceId, body.code(), body);
+        send(Request.builder().serviceId(serviceId).code(body.code()).key(body.key()).body(body).build());
     }
 
     /**
@@ -52,6 +58,30 @@ public interface MsgSender {
         send(Request.builder().serviceId(serviceId).code(code).body(body).build());
     }
 
+    /**
+     * 按消息键发送，相同键的消息按发送顺序投递
+     * serviceId默认为本服务ID
+     *
+     * @param code 业务消息类型
+     * @param key  消息键
+     * @param body 消息体
+     */
+    default void sendWithKey(String code, String key, Object body) {
+        sendWithKey(null, code, key, body);
+    }
+
+    /**
+     * 按消息键发送，相同键的消息按发送顺序投递
+     *
+     * @param serviceId 服务ID
+     * @param code      业务消息类型
+     * @param key       消息键
+     * @param body      消息体
+     */
+    default void sendWithKey(String serviceId, String code, String key, Object body) {
+        send(Request.builder().serviceId(serviceId).code(code).key(key).body(body).build());
+    }
+
     /**
      * 通知发送接口
      *
@@ -59,6 +89,66 @@ public interface MsgSender {
      */
     void send(Request<?> request);
 
+    /**
+     * 异步发送及时消息，不等待消息写入
+     * serviceId默认为本服务ID
+     *
+     * @param body 消息体
+     * @return 消息ID（如redis stream消息ID）
+     */
+    default CompletableFuture<String> sendAsync(MsgBody body) {
+        return sendAsync(Request.builder().code(body.code()).key(body.key()).body(body).build());
+    }
+
+    /**
+     * 异步发送及时消息，不等待消息写入
+     * serviceId默认为本服务ID
+     *
+     * @param code 业务消息类型
+     * @param body 消息体
+     * @return 消息ID（如redis stream消息ID）
+     */
+    default CompletableFuture<String> sendAsync(String code, Object body) {
+        return sendAsync(Request.builder().code(code).body(body).build());
+    }
+
+    /**
+     * 异步发送及时消息，不等待消息写入；默认同步发送后返回已完成的结果
+     *
+     * @param request request
+     * @return 消息ID（如redis stream消息ID），默认实现为null
+     */
+    default CompletableFuture<String> sendAsync(Request<?> request) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            send(request);
+            future.complete(null);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 批量发送及时消息，单条消息失败不影响其他消息
+     *
+     * @param requests 消息
+     * @return 每条消息的发送结果，与传入顺序一致
+     */
+    default List<SendResult> sendBatch(Collection<? extends Request<?>> requests) {
+        List<SendResult> results = new ArrayList<>(requests.size());
+        for (Request<?> request : requests) {
+            SendResult result = new SendResult(request);
+            try {
+                send(request);
+            } catch (Exception e) {
+                result.setError(e);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
     /**
      * 发送延时消息接口 注意class<?>
      *
@@ -114,4 +204,54 @@ public interface MsgSender {
      * @param request request
      */
     void sendDelayMessage(Request<?> request);
+
+    /**
+     * 异步发送延时消息，不等待消息写入
+     *
+     * @param code      延时消息类型
+     * @param body      延时消息实体
+     * @param delayTime 延时时间，单位：秒
+     * @return 发送完成
+     */
+    @SuppressWarnings("all")
+    default CompletableFuture<String> sendDelayMessageAsync(String code, Object body, long delayTime) {
+        return sendDelayMessageAsync(Request.builder().code(code).body(body).delayTime(delayTime).build());
+    }
+
+    /**
+     * 异步发送延时消息，不等待消息写入；默认同步发送后返回已完成的结果
+     *
+     * @param request request
+     * @return 发送完成，结果为null（延时消息到期前不产生消息ID）
+     */
+    default CompletableFuture<String> sendDelayMessageAsync(Request<?> request) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            sendDelayMessage(request);
+            future.complete(null);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 批量发送延时消息，单条消息失败不影响其他消息
+     *
+     * @param requests 消息
+     * @return 每条消息的发送结果，与传入顺序一致
+     */
+    default List<SendResult> sendDelayMessageBatch(Collection<? extends Request<?>> requests) {
+        List<SendResult> results = new ArrayList<>(requests.size());
+        for (Request<?> request : requests) {
+            SendResult result = new SendResult(request);
+            try {
+                sendDelayMessage(request);
+            } catch (Exception e) {
+                result.setError(e);
+            }
+            results.add(result);
+        }
+        return results;
+    }
 }
@@ -36,4 +36,16 @@ public @interface Fail {
      */
     long nextTime() default -1L;
 
+    /**
+     * 熔断失败率阈值，0~1，最近投递的失败率达到该值时暂停拉取订阅器的消息（仅及时消息）；
+     * <code>breakerFailureRate <= 0</code> 时根据全局配置{@link GlobalConfig.CircuitBreaker}
+     */
+    double breakerFailureRate() default -1;
+
+    /**
+     * 熔断持续时长，到期后拉取一次消息进行探测，单位：秒；
+     * <code>breakerOpenSeconds <= 0</code> 时根据全局配置{@link GlobalConfig.CircuitBreaker#getOpenSeconds()}
+     */
+    long breakerOpenSeconds() default -1L;
+
 }
@@ -0,0 +1,55 @@
+package com.anthonyzero.eventbus.core.api.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 订阅过滤条件，可重复声明，全部条件满足时才投递；
+ * 使用在@Listener订阅方法上，或MsgListener实现类上。
+ * 条件在注册时编译，投递时先于消息体解析判断，未通过的消息直接确认，不触发拦截器
+ *
+ */
+@Documented
+@Repeatable(Filters.class)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Filter {
+
+    /**
+     * 消息头名称：serviceId、code、key、requestId、type，其他名称为自定义消息头{@link com.anthonyzero.eventbus.core.metadata.Request#getHeaders()}
+     */
+    String header() default "";
+
+    /**
+     * 消息体字段，JSON Pointer格式，如：/status、/items/0/type；与header二选一，
+     * 设置时需解析消息体（按通用结构解析，不绑定消息参数类型）
+     */
+    String body() default "";
+
+    /**
+     * 匹配方式
+     */
+    Operator op() default Operator.EQUALS;
+
+    /**
+     * 匹配值：EQUALS时只能有一个值，IN为其中之一，PREFIX为以其中之一开头
+     */
+    String[] value();
+
+    /**
+     * 匹配方式
+     */
+    enum Operator {
+        /**
+         * 等于
+         */
+        EQUALS,
+        /**
+         * 以指定值开头
+         */
+        PREFIX,
+        /**
+         * 属于指定值之一
+         */
+        IN
+    }
+}
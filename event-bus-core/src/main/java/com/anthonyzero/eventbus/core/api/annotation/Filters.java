@@ -0,0 +1,15 @@
+package com.anthonyzero.eventbus.core.api.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 订阅过滤条件集合，{@link Filter}重复声明时使用
+ *
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Filters {
+
+    Filter[] value();
+}
@@ -33,6 +33,13 @@ public @interface Listener {
      */
     int concurrency() default -1;
 
+    /**
+     * 异步订阅方法（返回CompletionStage）同时处理中的最大消息数，默认值为-1。
+     *
+     * @return 设置-1表示未设置，默认{@link GlobalConfig#getMaxInFlight()}。
+     */
+    int maxInFlight() default -1;
+
     /**
      * 消息投递失败异常处理注解
      */
@@ -1,8 +1,8 @@
 package com.anthonyzero.eventbus.core.api.annotation;
 
 import com.anthonyzero.eventbus.core.utils.Assert;
-import com.anthonyzero.eventbus.core.utils.CalculateUtil;
 import com.anthonyzero.eventbus.core.utils.Func;
+import com.anthonyzero.eventbus.core.utils.IntervalExpression;
 import lombok.experimental.UtilityClass;
 
 import java.lang.annotation.*;
@@ -35,6 +35,9 @@ public @interface Polling {
      * 示例：
      * 1. interval=7，表示轮询间隔为7秒。
      * 2. interval=$count*$intervalTime，表示轮询间隔为当前轮询次数与上次轮询的时间间隔的乘积。
+     * 3. interval=min(pow(2, $count), 300)，表示按2的幂次退避，最长300秒。
+     * 4. interval=jitter($intervalTime * 2, 0.2)，表示间隔翻倍并上下随机浮动20%。
+     * 表达式在注册订阅器时编译，支持的运算及函数见{@link IntervalExpression}。
      *
      * @return 轮询时间间隔的表达式，默认为空字符串。
      */
@@ -94,13 +97,23 @@ public @interface Polling {
          * @param interval 轮询时间间隔的表达式。
          */
         public void isValid(String interval) {
+            compile(interval);
+        }
+
+        /**
+         * 编译并验证轮询时间间隔表达式。
+         *
+         * @param interval 轮询时间间隔的表达式。
+         * @return 编译后的表达式，表达式为空时返回null。
+         */
+        public IntervalExpression compile(String interval) {
             if (Func.isEmpty(interval)) {
-                return;
+                return null;
             }
-            interval = interval.replace("$count", "1")
-                    .replace("$intervalTime", "1");
-            double v = CalculateUtil.evalExpression(interval);
-            Assert.isTrue(v > 0, "interval must be greater than 0");
+            IntervalExpression expression = IntervalExpression.compile(interval);
+            // 常量表达式在启动时校验；含变量或随机函数的表达式投递时结果小于1按1秒处理
+            Assert.isTrue(!expression.isConstant() || expression.eval(0, 0) >= 1, "interval must be greater than or equal to 1");
+            return expression;
         }
     }
 }
@@ -13,7 +13,8 @@ public interface SendBeforeInterceptor {
     /**
      * 拦截器执行
      *
-     * @param request request
+     * @param request request，消息视图{@link com.anthonyzero.eventbus.core.metadata.InterceptorRequest}，
+     *                消息体在调用getBody()时才转换为JSON字符串
      */
     void execute(Request<String> request);
 }
@@ -6,13 +6,20 @@ import com.anthonyzero.eventbus.core.config.GlobalConfig;
 import com.anthonyzero.eventbus.core.config.InterceptorConfig;
 import com.anthonyzero.eventbus.core.metadata.MsgType;
 import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.metadata.SendResult;
 import com.anthonyzero.eventbus.core.part.ListenerRegistry;
 import com.anthonyzero.eventbus.core.utils.Assert;
 import com.anthonyzero.eventbus.core.utils.Func;
 import com.anthonyzero.eventbus.core.support.Listener;
+import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -21,6 +28,7 @@ import java.util.stream.Collectors;
  * @author : jin.ping
  * @date : 2024/9/4
  */
+@Slf4j
 public abstract class AbstractSenderAdapter implements MsgSender {
 
     private final GlobalConfig config;
@@ -42,12 +50,48 @@ public abstract class AbstractSenderAdapter implements MsgSender {
 
     @Override
     public void send(Request<?> request) {
+        prepareTimely(request);
+        interceptorConfig.sendBeforeExecute(request);
+        CompletableFuture<String> buffered = toSendBuffered(request);
+        if (null == buffered) {
+            toSend(request);
+            interceptorConfig.sendAfterExecute(request);
+            return;
+        }
+        // 缓冲发送时消息尚未写入，写入成功后才执行发送后置拦截（在写入线程执行，不可阻塞），写入失败时不执行
+        buffered.whenComplete((msgId, throwable) -> {
+            if (null != throwable) {
+                log.error("buffered send error, requestId={}", request.getRequestId(), throwable);
+                return;
+            }
+            try {
+                interceptorConfig.sendAfterExecute(request);
+            } catch (Exception e) {
+                log.error("send after interceptor error, requestId={}", request.getRequestId(), e);
+            }
+        });
+    }
+
+    /**
+     * 异步发送，校验及发送前置拦截在调用线程执行，发送后置拦截在消息写入完成后执行（不可阻塞）
+     */
+    @Override
+    public CompletableFuture<String> sendAsync(Request<?> request) {
+        return sendAsync(request, this::prepareTimely, this::toSendAsync);
+    }
+
+    @Override
+    public List<SendResult> sendBatch(Collection<? extends Request<?>> requests) {
+        return sendBatch(requests, this::prepareTimely, this::toSendBatch);
+    }
+
+    /**
+     * 及时消息校验及默认值
+     */
+    private void prepareTimely(Request<?> request) {
         request.setType(MsgType.TIMELY);
         checkBuild(request);
         Assert.isTrue(!Func.isEmpty(request.getCode()), "及时消息code不能为空");
-        interceptorConfig.sendBeforeExecute(request);
-        toSend(request);
-        interceptorConfig.sendAfterExecute(request);
     }
 
     /**
@@ -57,8 +101,67 @@ public abstract class AbstractSenderAdapter implements MsgSender {
      */
     public abstract void toSend(Request<?> request);
 
+    /**
+     * 缓冲发送消息（如合并写入），消息写入完成前返回；不使用缓冲发送时返回null，由{@link #toSend(Request)}发送
+     *
+     * @param request req
+     * @return 消息ID，不使用缓冲发送时为null
+     */
+    protected CompletableFuture<String> toSendBuffered(Request<?> request) {
+        return null;
+    }
+
+    /**
+     * 异步发送消息，默认同步发送
+     *
+     * @param request req
+     * @return 消息ID
+     */
+    protected CompletableFuture<String> toSendAsync(Request<?> request) {
+        toSend(request);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 批量发送消息，逐条记录发送结果（消息ID或异常），默认逐条发送
+     *
+     * @param results 已通过校验及发送前置拦截的消息
+     */
+    protected void toSendBatch(List<SendResult> results) {
+        for (SendResult result : results) {
+            try {
+                toSend(result.getRequest());
+            } catch (Exception e) {
+                result.setError(e);
+            }
+        }
+    }
+
     @Override
     public void sendDelayMessage(Request<?> request) {
+        prepareDelay(request);
+        interceptorConfig.sendBeforeExecute(request);
+        toSendDelayMessage(request);
+        interceptorConfig.sendAfterExecute(request);
+    }
+
+    /**
+     * 异步发送延时消息，发送后置拦截在消息写入完成后执行（不可阻塞）
+     */
+    @Override
+    public CompletableFuture<String> sendDelayMessageAsync(Request<?> request) {
+        return sendAsync(request, this::prepareDelay, this::toSendDelayMessageAsync);
+    }
+
+    @Override
+    public List<SendResult> sendDelayMessageBatch(Collection<? extends Request<?>> requests) {
+        return sendBatch(requests, this::prepareDelay, this::toSendDelayMessageBatch);
+    }
+
+    /**
+     * 延时消息校验及默认值
+     */
+    private void prepareDelay(Request<?> request) {
         request.setType(null == request.getType() ? MsgType.DELAY : request.getType());
         checkBuild(request);
         Assert.isTrue(null != request.getDelayTime() && request.getDelayTime() > 0, "延时时间不能小于0");
@@ -70,9 +173,6 @@ public abstract class AbstractSenderAdapter implements MsgSender {
             Assert.notNull(subscriber, "延时消息code未找到对应订阅器！");
             request.setDeliverId(subscriber.getTrigger().getDeliverId()); //方便后面消费投递
         }
-        interceptorConfig.sendBeforeExecute(request);
-        toSendDelayMessage(request);
-        interceptorConfig.sendAfterExecute(request);
     }
 
     /**
@@ -82,6 +182,98 @@ public abstract class AbstractSenderAdapter implements MsgSender {
      */
     public abstract void toSendDelayMessage(Request<?> request);
 
+    /**
+     * 异步发送延时消息，默认同步发送
+     *
+     * @param request req
+     * @return 发送完成
+     */
+    protected CompletableFuture<String> toSendDelayMessageAsync(Request<?> request) {
+        toSendDelayMessage(request);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 批量发送延时消息，逐条记录发送结果，默认逐条发送
+     *
+     * @param results 已通过校验及发送前置拦截的消息
+     */
+    protected void toSendDelayMessageBatch(List<SendResult> results) {
+        for (SendResult result : results) {
+            try {
+                toSendDelayMessage(result.getRequest());
+            } catch (Exception e) {
+                result.setError(e);
+            }
+        }
+    }
+
+    /**
+     * 异步发送：校验及发送前置拦截失败时返回异常结果，发送成功后执行发送后置拦截
+     *
+     * @param request 消息
+     * @param prepare 校验及默认值
+     * @param sender  异步发送
+     * @return 消息ID
+     */
+    private CompletableFuture<String> sendAsync(Request<?> request, Consumer<Request<?>> prepare,
+                                                Function<Request<?>, CompletableFuture<String>> sender) {
+        CompletableFuture<String> future;
+        try {
+            prepare.accept(request);
+            interceptorConfig.sendBeforeExecute(request);
+            future = sender.apply(request);
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return future.thenApply(msgId -> {
+            interceptorConfig.sendAfterExecute(request);
+            return msgId;
+        });
+    }
+
+    /**
+     * 批量发送：逐条校验并执行发送前置拦截，通过的消息一次批量发送，发送成功的消息执行发送后置拦截
+     *
+     * @param requests 消息
+     * @param prepare  校验及默认值
+     * @param sender   批量发送
+     * @return 每条消息的发送结果，与传入顺序一致
+     */
+    private List<SendResult> sendBatch(Collection<? extends Request<?>> requests, Consumer<Request<?>> prepare, Consumer<List<SendResult>> sender) {
+        List<SendResult> results = new ArrayList<>(requests.size());
+        List<SendResult> pending = new ArrayList<>(requests.size());
+        for (Request<?> request : requests) {
+            SendResult result = new SendResult(request);
+            results.add(result);
+            try {
+                prepare.accept(request);
+                interceptorConfig.sendBeforeExecute(request);
+                pending.add(result);
+            } catch (Exception e) {
+                result.setError(e);
+            }
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
+        sender.accept(pending);
+        for (SendResult result : pending) {
+            if (!result.isSuccess()) {
+                continue;
+            }
+            try {
+                interceptorConfig.sendAfterExecute(result.getRequest());
+            } catch (Exception e) {
+                // 与单条发送一致，消息已发送，后置拦截的异常返回给调用方
+                result.setError(e);
+            }
+        }
+        return results;
+    }
+
     /**
      * 发送消息前置操作
      *
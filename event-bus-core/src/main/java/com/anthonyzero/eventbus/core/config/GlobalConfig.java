@@ -40,6 +40,24 @@ public class GlobalConfig {
      */
     protected Integer msgBatchSize = 16;
 
+    /**
+     * 异步订阅方法（返回CompletionStage）每个订阅器同时处理中的最大消息数，默认：256；
+     * 达到上限时接收线程等待，直至有消息处理完成
+     */
+    protected Integer maxInFlight = 256;
+
+    /**
+     * 消息编码格式（json、smile），默认为：json；
+     * 消费端可同时识别各类格式，切换二进制格式前需先完成所有消费端的升级
+     */
+    protected String codec = "json";
+
+    /**
+     * 消息分发及定时任务执行器（platform、virtual），默认为：platform；
+     * virtual需JDK21及以上，每次投递使用一个虚拟线程，可通过SPI（IExecutorProvider）扩展
+     */
+    protected String executor = "platform";
+
     /**
      * 节点联通性配置
      */
@@ -50,6 +68,16 @@ public class GlobalConfig {
      */
     protected Fail fail = new Fail();
 
+    /**
+     * 订阅器熔断配置
+     */
+    protected CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * 消费幂等配置
+     */
+    protected Idempotent idempotent = new Idempotent();
+
     /**
      * 节点联通性配置
      */
@@ -82,5 +110,67 @@ public class GlobalConfig {
          * 下次触发时间，单位：秒，默认10秒 ，
          */
         private Long nextTime = 10L;
+
+        /**
+         * 本地重试阈值，下次投递间隔小于等于该值时在本地等待重试（消息保持未确认状态），
+         * 否则通过延时消息重试；小于等于0时不开启，单位：秒，默认：3秒。
+         * 需小于待确认消息重发的超时时间（redis.deliver-timeout），启动时超出则调整为超时时间减1秒
+         */
+        private Long localThreshold = 3L;
+
+        /**
+         * 本地等待重试的最大消息数，超出时通过延时消息重试，默认：10000条
+         */
+        private Integer localCapacity = 10000;
+    }
+
+    /**
+     * 订阅器熔断配置，最近投递的失败率达到阈值时暂停拉取该订阅器的消息
+     */
+    @Data
+    @ToString
+    public static class CircuitBreaker {
+        /**
+         * 是否对所有及时消息订阅器开启熔断，默认：否；
+         * 未开启时可通过{@link com.anthonyzero.eventbus.core.api.annotation.Fail#breakerFailureRate()}单独开启
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 失败率阈值，0~1，默认：0.5
+         */
+        private Double failureRate = 0.5;
+
+        /**
+         * 统计的最近投递次数，默认：20次
+         */
+        private Integer window = 20;
+
+        /**
+         * 熔断持续时长，到期后拉取一次消息进行探测，单位：秒，默认：30秒
+         */
+        private Long openSeconds = 30L;
+    }
+
+    /**
+     * 消费幂等配置，按消息ID（requestId）记录订阅器已处理成功的消息，重复投递（如待确认消息重发）时跳过
+     */
+    @Data
+    @ToString
+    public static class Idempotent {
+        /**
+         * 是否开启，默认：否；轮询订阅器（@Polling）会重复投递同一消息，不做幂等检查
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 本地缓存的已处理消息数，默认：10000条
+         */
+        private Integer localCapacity = 10000;
+
+        /**
+         * 已处理记录的保留时长，单位：秒，默认：3600秒
+         */
+        private Long expireSeconds = 3600L;
     }
 }
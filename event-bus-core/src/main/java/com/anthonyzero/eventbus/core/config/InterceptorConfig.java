@@ -1,12 +1,13 @@
 package com.anthonyzero.eventbus.core.config;
 
 import com.anthonyzero.eventbus.core.api.interceptor.*;
+import com.anthonyzero.eventbus.core.metadata.InterceptorRequest;
 import com.anthonyzero.eventbus.core.metadata.Request;
-import com.anthonyzero.eventbus.core.utils.Func;
 import lombok.Setter;
 
 /**
  * 拦截器配置信息
+ * 拦截器接收的是消息视图{@link InterceptorRequest}，消息体按需转换为JSON字符串，不修改原消息
  * @author : jin.ping
  * @date : 2024/9/4
  */
@@ -39,8 +40,7 @@ public class InterceptorConfig {
     public void sendBeforeExecute(Request<?> request) {
         // 只有第一次发送才执行拦截器
         if (sendBeforeInterceptor != null && request.getDeliverCount() <= 1) {
-            convertRequest(request);
-            sendBeforeInterceptor.execute((Request<String>) request);
+            sendBeforeInterceptor.execute(InterceptorRequest.of(request));
         }
     }
 
@@ -52,8 +52,7 @@ public class InterceptorConfig {
     public void sendAfterExecute(Request<?> request) {
         // 只有第一次发送才执行拦截器
         if (sendAfterInterceptor != null && request.getDeliverCount() <= 1) {
-            convertRequest(request);
-            sendAfterInterceptor.execute((Request<String>) request);
+            sendAfterInterceptor.execute(InterceptorRequest.of(request));
         }
     }
 
@@ -64,8 +63,7 @@ public class InterceptorConfig {
      */
     public void deliverSuccessExecute(Request<?> request) {
         if (deliverSuccessInterceptor != null) {
-            convertRequest(request);
-            deliverSuccessInterceptor.execute((Request<String>) request);
+            deliverSuccessInterceptor.execute(InterceptorRequest.of(request));
         }
     }
 
@@ -78,8 +76,7 @@ public class InterceptorConfig {
      */
     public void deliverThrowableEveryExecute(Request<?> request, Throwable throwable) {
         if (deliverThrowableEveryInterceptor != null) {
-            convertRequest(request);
-            deliverThrowableEveryInterceptor.execute((Request<String>) request, throwable);
+            deliverThrowableEveryInterceptor.execute(InterceptorRequest.of(request), throwable);
         }
     }
 
@@ -91,19 +88,7 @@ public class InterceptorConfig {
      */
     public void deliverThrowableExecute(Request<?> request, Throwable throwable) {
         if (deliverThrowableInterceptor != null) {
-            convertRequest(request);
-            deliverThrowableInterceptor.execute((Request<String>) request, throwable);
-        }
-    }
-
-    /**
-     * 将请求体转换为json
-     *
-     * @param request 请求
-     */
-    private void convertRequest(Request request) {
-        if (!(request.getBody() instanceof String)) {
-            request.setBody(Func.toJson(request.getBody()));
+            deliverThrowableInterceptor.execute(InterceptorRequest.of(request), throwable);
         }
     }
 }
@@ -14,6 +14,12 @@ public class EventBusConstant {
      */
     public static final String ON_MESSAGE = "onMessage";
 
+    /**
+     * 接口批量订阅器接收方法名
+     *
+     */
+    public static final String ON_MESSAGES = "onMessages";
+
     /**
      * thread name
      */
@@ -23,4 +29,9 @@ public class EventBusConstant {
      * subscribe thread name
      */
     public static final String THREAD_NAME = "eventbus-msg-pool-";
+
+    /**
+     * local retry thread name
+     */
+    public static final String RETRY_NAME = "eventbus-retry-pool-";
 }
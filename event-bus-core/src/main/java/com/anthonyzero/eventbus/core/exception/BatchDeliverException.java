@@ -0,0 +1,28 @@
+package com.anthonyzero.eventbus.core.exception;
+
+import com.anthonyzero.eventbus.core.metadata.Message;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 批量消息部分处理失败，只有其中的消息按失败处理（重试、失败回调），批次中的其他消息按处理成功确认
+ *
+ */
+@Getter
+public class BatchDeliverException extends EventBusException {
+
+    /**
+     * 处理失败的消息及对应的异常
+     */
+    private final transient Map<Message<?>, Throwable> failures;
+
+    public BatchDeliverException(Map<Message<?>, Throwable> failures) {
+        super("batch deliver fail, count=" + failures.size());
+        Map<Message<?>, Throwable> map = new IdentityHashMap<>(failures.size());
+        map.putAll(failures);
+        this.failures = Collections.unmodifiableMap(map);
+    }
+}
@@ -0,0 +1,189 @@
+package com.anthonyzero.eventbus.core.metadata;
+
+import com.anthonyzero.eventbus.core.utils.Func;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 拦截器使用的消息视图，消息头读写直接作用于原消息，
+ * 消息体在首次调用{@link #getBody()}时才转换为JSON字符串，不修改原消息的消息体；
+ * 只读取消息头（requestId、code等）的拦截器不产生消息体编解码开销。
+ * 原始消息体可通过{@link #rawBody()}获取
+ *
+ */
+@SuppressWarnings("all")
+public class InterceptorRequest extends Request<String> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 原消息
+     */
+    private final transient Request<?> source;
+
+    /**
+     * 消息体JSON字符串
+     */
+    private transient String jsonBody;
+
+    private InterceptorRequest(Request<?> source) {
+        this.source = source;
+    }
+
+    /**
+     * 创建消息视图
+     *
+     * @param source 原消息
+     * @return 消息视图
+     */
+    public static InterceptorRequest of(Request<?> source) {
+        return source instanceof InterceptorRequest ? (InterceptorRequest) source : new InterceptorRequest(source);
+    }
+
+    /**
+     * 获取原始消息体：延迟解析的消息未解码时为原始字节，否则为消息体对象
+     *
+     * @return 原始消息体
+     */
+    public Object rawBody() {
+        if (source instanceof LazyRequest && !((LazyRequest<?>) source).decoded()) {
+            return ((LazyRequest<?>) source).rawBody();
+        }
+        return source.getBody();
+    }
+
+    /**
+     * 获取原消息
+     *
+     * @return 原消息
+     */
+    public Request<?> source() {
+        return source;
+    }
+
+    @Override
+    public String getBody() {
+        if (null == jsonBody) {
+            jsonBody = toJsonBody();
+        }
+        return jsonBody;
+    }
+
+    /**
+     * 消息体转换为JSON字符串，未解码的JSON对象/数组直接使用原始文本
+     */
+    private String toJsonBody() {
+        Object rawBody = rawBody();
+        if (rawBody instanceof byte[]) {
+            byte[] bytes = (byte[]) rawBody;
+            if (bytes.length > 0 && (bytes[0] == '{' || bytes[0] == '[')) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            rawBody = source.getBody();
+        }
+        if (null == rawBody || rawBody instanceof String) {
+            return (String) rawBody;
+        }
+        return Func.toJson(rawBody);
+    }
+
+    @Override
+    public void setBody(String body) {
+        this.jsonBody = body;
+    }
+
+    @Override
+    public String getServiceId() {
+        return source.getServiceId();
+    }
+
+    @Override
+    public void setServiceId(String serviceId) {
+        source.setServiceId(serviceId);
+    }
+
+    @Override
+    public String getCode() {
+        return source.getCode();
+    }
+
+    @Override
+    public void setCode(String code) {
+        source.setCode(code);
+    }
+
+    @Override
+    public String getRequestId() {
+        return source.getRequestId();
+    }
+
+    @Override
+    public void setRequestId(String requestId) {
+        source.setRequestId(requestId);
+    }
+
+    @Override
+    public String getDeliverId() {
+        return source.getDeliverId();
+    }
+
+    @Override
+    public void setDeliverId(String deliverId) {
+        source.setDeliverId(deliverId);
+    }
+
+    @Override
+    public Integer getDeliverCount() {
+        return source.getDeliverCount();
+    }
+
+    @Override
+    public void setDeliverCount(Integer deliverCount) {
+        source.setDeliverCount(deliverCount);
+    }
+
+    @Override
+    public MsgType getType() {
+        return source.getType();
+    }
+
+    @Override
+    public void setType(MsgType type) {
+        source.setType(type);
+    }
+
+    @Override
+    public Long getDelayTime() {
+        return source.getDelayTime();
+    }
+
+    @Override
+    public void setDelayTime(Long delayTime) {
+        source.setDelayTime(delayTime);
+    }
+
+    @Override
+    public String getKey() {
+        return source.getKey();
+    }
+
+    @Override
+    public void setKey(String key) {
+        source.setKey(key);
+    }
+
+    @Override
+    public Map<String, String> getHeaders() {
+        return source.getHeaders();
+    }
+
+    @Override
+    public void setHeaders(Map<String, String> headers) {
+        source.setHeaders(headers);
+    }
+
+    @Override
+    public String topic() {
+        return source.topic();
+    }
+}
@@ -0,0 +1,79 @@
+package com.anthonyzero.eventbus.core.metadata;
+
+import com.anthonyzero.eventbus.core.utils.Func;
+
+import java.lang.reflect.Type;
+
+/**
+ * 延迟解析消息体的消息，保留消息体原始字节，首次获取消息体时才解码；
+ * 消息体未被重新赋值时，重新投递（失败重试、轮询）直接使用原始字节，不再重新编码消息体
+ *
+ */
+@SuppressWarnings("all")
+public class LazyRequest<T> extends Request<T> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 消息体原始字节（编码后）
+     */
+    private transient byte[] rawBody;
+
+    /**
+     * 消息体类型
+     */
+    private transient Type bodyType;
+
+    /**
+     * 消息体是否已解码
+     */
+    private transient boolean decoded;
+
+    /**
+     * 构造器
+     *
+     * @param header   消息头
+     * @param rawBody  消息体原始字节
+     * @param bodyType 消息体类型
+     */
+    public LazyRequest(Request<?> header, byte[] rawBody, Type bodyType) {
+        super(header.getServiceId(), header.getCode(), header.getRequestId(), header.getDeliverId(), null,
+                header.getDeliverCount(), header.getType(), header.getDelayTime(), null, header.getKey(), header.getHeaders());
+        this.rawBody = rawBody;
+        this.bodyType = bodyType;
+        this.decoded = null == rawBody;
+    }
+
+    @Override
+    public T getBody() {
+        if (!decoded) {
+            super.setBody(Func.decodeBody(rawBody, bodyType));
+            decoded = true;
+        }
+        return super.getBody();
+    }
+
+    @Override
+    public void setBody(T body) {
+        super.setBody(body);
+        this.rawBody = null;
+        this.decoded = true;
+    }
+
+    /**
+     * 消息体是否已解码
+     *
+     * @return true：已解码
+     */
+    public boolean decoded() {
+        return decoded;
+    }
+
+    /**
+     * 获取消息体原始字节（解码后仍保留），消息体被重新赋值后返回null
+     *
+     * @return 原始字节
+     */
+    public byte[] rawBody() {
+        return rawBody;
+    }
+}
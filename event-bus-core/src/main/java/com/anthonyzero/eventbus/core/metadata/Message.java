@@ -33,6 +33,13 @@ public interface Message<T> {
      */
     Integer getDeliverCount();
 
+    /**
+     * 获取消息键，相同键的消息按发送顺序投递
+     *
+     * @return 消息键
+     */
+    String getKey();
+
     /**
      * 获取消息体
      *
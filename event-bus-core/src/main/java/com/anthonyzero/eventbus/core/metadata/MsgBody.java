@@ -17,4 +17,13 @@ public interface MsgBody {
     default String code() {
         return this.getClass().getSimpleName();
     }
+
+    /**
+     * 消息键，相同键的消息按发送顺序投递，默认为空（不保证顺序）
+     *
+     * @return 消息键
+     */
+    default String key() {
+        return null;
+    }
 }
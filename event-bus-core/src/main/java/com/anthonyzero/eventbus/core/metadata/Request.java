@@ -6,6 +6,8 @@ import com.anthonyzero.eventbus.core.constant.EventBusConstant;
 import com.anthonyzero.eventbus.core.utils.Func;
 import lombok.*;
 
+import java.util.Map;
+
 /**
  * 通知消息体，消息总线原始消息体
  *
@@ -44,6 +46,16 @@ public class Request<T> extends Topic implements Message<T> {
      */
     private Long delayTime;
 
+    /**
+     * 消息键，相同键的消息按发送顺序投递（需开启eventbus.redis.key-lanes），为空时不保证顺序
+     */
+    private String key;
+
+    /**
+     * 自定义消息头，可用于订阅过滤{@link com.anthonyzero.eventbus.core.api.annotation.Filter}
+     */
+    private Map<String, String> headers;
+
     /**
      * 业务消息体
      * 注：必须包含无参构造函数
@@ -59,7 +71,9 @@ public class Request<T> extends Topic implements Message<T> {
                    Integer deliverCount,
                    MsgType type,
                    Long delayTime,
-                   T body) {
+                   T body,
+                   String key,
+                   Map<String, String> headers) {
         super(serviceId, code);
         this.requestId = requestId;
         this.deliverId = deliverId;
@@ -70,6 +84,8 @@ public class Request<T> extends Topic implements Message<T> {
         this.type = type;
         this.delayTime = delayTime;
         this.body = body;
+        this.key = key;
+        this.headers = headers;
     }
 
     @Override
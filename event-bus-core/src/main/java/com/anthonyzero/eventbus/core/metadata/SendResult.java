@@ -0,0 +1,38 @@
+package com.anthonyzero.eventbus.core.metadata;
+
+import lombok.Data;
+
+/**
+ * 批量发送中单条消息的发送结果
+ *
+ */
+@Data
+public class SendResult {
+    /**
+     * 发送的消息
+     */
+    private final Request<?> request;
+
+    /**
+     * 消息在消息引擎中的编号（如redis stream消息ID），延时消息为null
+     */
+    private String msgId;
+
+    /**
+     * 发送失败的异常，成功时为null
+     */
+    private Throwable error;
+
+    public SendResult(Request<?> request) {
+        this.request = request;
+    }
+
+    /**
+     * 是否发送成功
+     *
+     * @return true：成功
+     */
+    public boolean isSuccess() {
+        return null == error;
+    }
+}
@@ -1,23 +1,47 @@
 package com.anthonyzero.eventbus.core.part;
 
+import com.anthonyzero.eventbus.core.api.DeadLetterQueue;
+import com.anthonyzero.eventbus.core.api.IdempotentStore;
 import com.anthonyzero.eventbus.core.api.MsgSender;
 import com.anthonyzero.eventbus.core.api.annotation.Fail;
 import com.anthonyzero.eventbus.core.api.annotation.Polling;
 import com.anthonyzero.eventbus.core.config.GlobalConfig;
 import com.anthonyzero.eventbus.core.config.InterceptorConfig;
+import com.anthonyzero.eventbus.core.constant.EventBusConstant;
+import com.anthonyzero.eventbus.core.exception.BatchDeliverException;
 import com.anthonyzero.eventbus.core.exception.EventBusException;
+import com.anthonyzero.eventbus.core.metadata.LazyRequest;
+import com.anthonyzero.eventbus.core.metadata.Message;
 import com.anthonyzero.eventbus.core.metadata.Request;
-import com.anthonyzero.eventbus.core.utils.CalculateUtil;
+import com.anthonyzero.eventbus.core.utils.ExecutorUtil;
 import com.anthonyzero.eventbus.core.utils.Func;
+import com.anthonyzero.eventbus.core.utils.IntervalExpression;
+import com.anthonyzero.eventbus.core.support.CircuitBreaker;
 import com.anthonyzero.eventbus.core.support.FailTrigger;
 import com.anthonyzero.eventbus.core.support.Listener;
+import com.anthonyzero.eventbus.core.support.MsgFilter;
 import com.anthonyzero.eventbus.core.support.Trigger;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 /**
  * 消息投递分发器  核心
+ * 投递方法返回投递完成的Future：同步订阅方法返回时已完成；异步订阅方法（返回CompletionStage）在其结果完成、
+ * 成功或失败处理执行后完成；失败后在本地等待重试时，重试完成后完成。容器应在Future完成后确认消息
  * @author : jin.ping
  * @date : 2024/9/4
  */
@@ -28,6 +52,31 @@ public class DeliveryEventBus {
     private final GlobalConfig config;
     private final MsgSender msgSender;
     private final ListenerRegistry registry;
+    /**
+     * 未找到订阅者的投递ID，同一投递ID只记录一次错误日志（订阅器下线后可能积压大量消息）
+     */
+    private final Set<String> unknownDeliverIds = ConcurrentHashMap.newKeySet();
+    /**
+     * 异步订阅方法处理中消息数的许可，下标为订阅器路由ID
+     */
+    private volatile Semaphore[] inFlights = new Semaphore[0];
+    /**
+     * 本地重试调度，首次本地重试时创建
+     */
+    private volatile LocalRetryScheduler retryScheduler;
+    /**
+     * 死信队列，未开启时为null
+     */
+    private DeadLetterQueue deadLetterQueue;
+    /**
+     * 消费幂等缓存，未开启时为null
+     */
+    private final IdempotentCache idempotentCache;
+
+    /**
+     * 已完成的投递
+     */
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
 
     public DeliveryEventBus(InterceptorConfig interceptorConfig,
                        GlobalConfig config,
@@ -37,6 +86,9 @@ public class DeliveryEventBus {
         this.config = config;
         this.msgSender = msgSender;
         this.registry = registry;
+        GlobalConfig.Idempotent idempotent = config.getIdempotent();
+        this.idempotentCache = null != idempotent && Boolean.TRUE.equals(idempotent.getEnabled())
+                ? new IdempotentCache(idempotent.getLocalCapacity(), idempotent.getExpireSeconds()) : null;
     }
 
     /**
@@ -44,9 +96,10 @@ public class DeliveryEventBus {
      *
      * @param subscriber 订阅者
      * @param body       内容的主体
+     * @return 投递完成
      */
-    public void deliverTimely(Listener subscriber, byte[] body) {
-        deliverTimely(subscriber, Func.convertByBytes(body));
+    public CompletableFuture<Void> deliverTimely(Listener subscriber, byte[] body) {
+        return deliverTimely(subscriber, Func.decodeRequest(body, request -> timelyBodyType(subscriber, request)));
     }
 
     /**
@@ -54,9 +107,10 @@ public class DeliveryEventBus {
      *
      * @param subscriber 订阅者
      * @param body       内容的主体
+     * @return 投递完成
      */
-    public void deliverTimely(Listener subscriber, String body) {
-        deliverTimely(subscriber, Func.convertByJson(body));
+    public CompletableFuture<Void> deliverTimely(Listener subscriber, String body) {
+        return deliverTimely(subscriber, Func.convertByJson(body, request -> timelyBodyType(subscriber, request)));
     }
 
     /**
@@ -64,96 +118,666 @@ public class DeliveryEventBus {
      *
      * @param subscriber 订阅者
      * @param request    请求对象
+     * @return 投递完成
      */
-    public void deliverTimely(Listener subscriber, Request<?> request) {
-        if (null != request.getDeliverId()
-                && (!subscriber.getTrigger().getDeliverId().equals(request.getDeliverId()))) {
-            //不满足
-            return;
+    public CompletableFuture<Void> deliverTimely(Listener subscriber, Request<?> request) {
+        if (null == timelyBodyType(subscriber, request) || !matchBody(subscriber, request)) {
+            //不满足（非本订阅者或被过滤）
+            return DONE;
         }
         // 发送消息给订阅者
-        deliver(subscriber, request);
+        return deliver(subscriber, request);
+    }
+
+    /**
+     * 发送及时消息给订阅者，消息头与消息体分开存储的情况，
+     * 非本订阅者的消息不解析消息体
+     *
+     * @param subscriber 订阅者
+     * @param header     消息头（不含消息体）
+     * @param body       消息体（编码后的字节）
+     * @return 投递完成
+     */
+    public CompletableFuture<Void> deliverTimely(Listener subscriber, Request<?> header, byte[] body) {
+        Type bodyType = timelyBodyType(subscriber, header);
+        if (null == bodyType) {
+            return DONE;
+        }
+        return deliverTimely(subscriber, withBody(header, body, bodyType));
+    }
+
+    /**
+     * 构建订阅者的及时消息，非本订阅者的消息不解析消息体
+     *
+     * @param subscriber 订阅者
+     * @param body       内容的主体
+     * @return 消息，非本订阅者的消息为null
+     */
+    public Request<?> timelyRequest(Listener subscriber, byte[] body) {
+        Request<?> request = Func.decodeRequest(body, r -> timelyBodyType(subscriber, r));
+        return null == timelyBodyType(subscriber, request) || !matchBody(subscriber, request) ? null : request;
+    }
+
+    /**
+     * 构建订阅者的及时消息，消息头与消息体分开存储的情况，非本订阅者的消息不解析消息体
+     *
+     * @param subscriber 订阅者
+     * @param header     消息头（不含消息体）
+     * @param body       消息体（编码后的字节）
+     * @return 消息，非本订阅者的消息为null
+     */
+    public Request<?> timelyRequest(Listener subscriber, Request<?> header, byte[] body) {
+        Type bodyType = timelyBodyType(subscriber, header);
+        if (null == bodyType) {
+            return null;
+        }
+        Request<?> request = withBody(header, body, bodyType);
+        return matchBody(subscriber, request) ? request : null;
+    }
+
+    /**
+     * 消息是否投递给订阅者（投递ID及消息头过滤条件），不解析消息体；
+     * 不投递的消息不触发拦截器，可直接确认
+     *
+     * @param subscriber 订阅者
+     * @param header     消息头
+     * @return true：投递
+     */
+    public boolean accept(Listener subscriber, Request<?> header) {
+        return null != timelyBodyType(subscriber, header);
+    }
+
+    /**
+     * 批量发送及时消息给订阅者，批量订阅器一次接收全部消息，其他订阅器逐条投递
+     *
+     * @param subscriber 订阅者
+     * @param requests   消息（已过滤非本订阅者的消息）
+     * @return 投递完成
+     */
+    public CompletableFuture<Void> deliverTimely(Listener subscriber, List<Request<?>> requests) {
+        if (requests.isEmpty()) {
+            return DONE;
+        }
+        prefetchProcessed(subscriber, requests);
+        Trigger trigger = subscriber.getTrigger();
+        if (!trigger.isBatch()) {
+            CompletableFuture<Void> all = DONE;
+            for (Request<?> request : requests) {
+                all = join(all, deliver(subscriber, request));
+            }
+            return all;
+        }
+        for (Request<?> request : requests) {
+            if (null == request.getDeliverId()) {
+                request.setDeliverId(trigger.getDeliverId());
+            }
+        }
+        // 跳过已处理成功的重复消息
+        List<Request<?>> batch = null == idempotentCache || null != subscriber.getPolling() ? requests
+                : requests.stream().filter(request -> !processed(subscriber, request)).collect(Collectors.toList());
+        if (batch.isEmpty()) {
+            return DONE;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("deliver batch msg：{}", batch.size());
+        }
+        Semaphore permits = acquire(subscriber);
+        Object result;
+        try {
+            try {
+                result = trigger.invokeBatch(batch);
+            } finally {
+                // 批量接收不支持轮询，丢弃标记，避免影响当前线程的后续投递
+                Polling.Keep.clear();
+            }
+        } catch (Throwable throwable) {
+            release(permits);
+            rethrowFatal(throwable);
+            return batchComplete(subscriber, batch, throwable);
+        }
+        if (trigger.isAsync() && result instanceof CompletionStage) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            ((CompletionStage<?>) result).whenComplete((r, throwable) -> {
+                Throwable cause = unwrap(throwable);
+                if (isFatal(cause)) {
+                    release(permits);
+                    fatal(cause, done);
+                    return;
+                }
+                CompletableFuture<Void> next = DONE;
+                try {
+                    next = batchComplete(subscriber, batch, cause);
+                } finally {
+                    release(permits);
+                    complete(next, done);
+                }
+            });
+            return done;
+        }
+        release(permits);
+        return batchComplete(subscriber, batch, null);
+    }
+
+    /**
+     * 批量投递完成处理
+     *
+     * @param subscriber 订阅者
+     * @param requests   消息
+     * @param exception  订阅方法抛出的异常，成功时为null
+     * @return 失败处理完成
+     */
+    private CompletableFuture<Void> batchComplete(Listener subscriber, List<Request<?>> requests, Throwable exception) {
+        if (null == exception) {
+            return batchSuccess(subscriber, requests);
+        }
+        CompletableFuture<Void> all = DONE;
+        if (exception instanceof BatchDeliverException) {
+            // 部分失败，失败的消息逐条进入失败处理
+            Map<Message<?>, Throwable> failures = ((BatchDeliverException) exception).getFailures();
+            List<Request<?>> succeeded = new ArrayList<>(requests.size());
+            for (Request<?> request : requests) {
+                Throwable throwable = failures.get(request);
+                if (null == throwable) {
+                    succeeded.add(request);
+                } else {
+                    all = join(all, failHandle(subscriber, request, throwable));
+                }
+            }
+            return join(all, batchSuccess(subscriber, succeeded));
+        }
+        for (Request<?> request : requests) {
+            all = join(all, failHandle(subscriber, request, exception));
+        }
+        return all;
+    }
+
+    /**
+     * 批量投递成功处理
+     *
+     * @param subscriber 订阅者
+     * @param requests   执行成功的消息
+     * @return 处理完成，失败时异常完成
+     */
+    private CompletableFuture<Void> batchSuccess(Listener subscriber, List<Request<?>> requests) {
+        try {
+            requests.forEach(request -> succeeded(subscriber, request));
+            markProcessed(subscriber, requests);
+        } catch (RuntimeException e) {
+            return afterSuccessError(e);
+        }
+        return DONE;
     }
 
     /**
      * 接收延时消息
      *
      * @param body body
+     * @return 投递完成
      */
-    public void deliverDelay(String body) {
-        deliverDelay(Func.convertByJson(body));
+    public CompletableFuture<Void> deliverDelay(String body) {
+        return deliverDelay(Func.convertByJson(body, this::delayBodyType));
     }
 
     /**
      * 接收延时消息
      *
      * @param body body
+     * @return 投递完成
      */
-    public void deliverDelay(byte[] body) {
-        deliverDelay(Func.convertByBytes(body));
+    public CompletableFuture<Void> deliverDelay(byte[] body) {
+        return deliverDelay(Func.decodeRequest(body, this::delayBodyType));
     }
 
     /**
      * 接收延时消息
      * 所有类型code的延时消息都聚合在一起，所以需要发现具体的订阅者
      * @param body body
+     * @return 投递完成
      */
     @SuppressWarnings("all")
-    public void deliverDelay(Request request) {
+    public CompletableFuture<Void> deliverDelay(Request request) {
         // 获取延时订阅者
-        Listener subscriber = null;
-        if (request.getType().isDelay()) {
-            subscriber = registry.getDelayListener(request.getDeliverId());
-        } else {
-            //特殊情况 及时消息类型消费失败或者poll 的时候底层是通过发送延时消息实现
-            subscriber = registry.getTimelyListener(request.getDeliverId());
-        }
-        // 如果订阅者为空，则打印错误日志并返回
+        Listener subscriber = getDelayListener(request);
+        // 如果订阅者为空，则打印错误日志并丢弃（消息体未解析）
         if (null == subscriber) {
-            log.error("delay msg handler not found deliverId={}", request.getDeliverId());
-            return;
+            if (unknownDeliverIds.add(String.valueOf(request.getDeliverId()))) {
+                log.error("delay msg handler not found deliverId={}", request.getDeliverId());
+            }
+            return DONE;
         }
         // 交付消息给订阅者
-        deliver(subscriber, request);
+        return deliver(subscriber, request);
+    }
+
+    /**
+     * 接收延时消息，消息头与消息体分开存储的情况，未找到订阅者时不解析消息体
+     *
+     * @param header 消息头（不含消息体）
+     * @param body   消息体（编码后的字节）
+     * @return 投递完成
+     */
+    public CompletableFuture<Void> deliverDelay(Request<?> header, byte[] body) {
+        Type bodyType = delayBodyType(header);
+        return deliverDelay(null == bodyType ? header : withBody(header, body, bodyType));
+    }
+
+    /**
+     * 消息体延迟解析，首次获取消息体时解码
+     */
+    private Request<?> withBody(Request<?> header, byte[] body, Type bodyType) {
+        return new LazyRequest<>(header, body, bodyType);
+    }
+
+    /**
+     * 获取延时消息的订阅者
+     *
+     * @param request 请求对象（只需消息头）
+     * @return 订阅者
+     */
+    private Listener getDelayListener(Request<?> request) {
+        if (request.getType().isDelay()) {
+            return registry.getDelayListener(request.getDeliverId());
+        }
+        //特殊情况 及时消息类型消费失败或者poll 的时候底层是通过发送延时消息实现
+        return registry.getTimelyListener(request.getDeliverId());
+    }
+
+    /**
+     * 及时消息的消息体类型，非本订阅者或未通过消息头过滤条件的消息不解析消息体
+     */
+    private Type timelyBodyType(Listener subscriber, Request<?> request) {
+        Trigger trigger = subscriber.getTrigger();
+        if (null != request.getDeliverId() && !trigger.getDeliverId().equals(request.getDeliverId())) {
+            return null;
+        }
+        MsgFilter filter = subscriber.getFilter();
+        if (null != filter && !filter.matchHeader(request)) {
+            return null;
+        }
+        return trigger.getBodyType();
+    }
+
+    /**
+     * 消息体过滤条件是否满足，消息体按通用结构解析，未解码的消息体不绑定为消息参数类型
+     */
+    private boolean matchBody(Listener subscriber, Request<?> request) {
+        MsgFilter filter = subscriber.getFilter();
+        if (null == filter || !filter.hasBodyConditions()) {
+            return true;
+        }
+        Object body;
+        try {
+            if (request instanceof LazyRequest && !((LazyRequest<?>) request).decoded()) {
+                byte[] rawBody = ((LazyRequest<?>) request).rawBody();
+                body = null == rawBody ? null : Func.decodeBody(rawBody, Object.class);
+            } else {
+                body = null == request.getBody() ? null : Func.parseObject(request.getBody(), Object.class);
+            }
+        } catch (Exception e) {
+            log.warn("filter body parse fail, requestId={}", request.getRequestId(), e);
+            return false;
+        }
+        return filter.matchBody(body);
+    }
+
+    /**
+     * 延时消息的消息体类型，未找到订阅者时不解析消息体
+     */
+    private Type delayBodyType(Request<?> request) {
+        Listener subscriber = getDelayListener(request);
+        return null == subscriber ? null : subscriber.getTrigger().getBodyType();
     }
 
     /**
      * 投递消息
      */
-    private void deliver(Listener subscriber, Request<?> request) {
+    private CompletableFuture<Void> deliver(Listener subscriber, Request<?> request) {
         Trigger trigger = subscriber.getTrigger(); //重点触发
         if (null == request.getDeliverId()) {
             //第一次及时消息投递的时候赋值，方便后面deliverDelay 重要
             request.setDeliverId(trigger.getDeliverId());
         }
+        if (null != idempotentCache && null == subscriber.getPolling() && processed(subscriber, request)) {
+            // 已处理成功的重复消息（如待确认消息重发），直接确认
+            if (log.isDebugEnabled()) {
+                log.debug("skip processed msg, requestId={}, deliverId={}", request.getRequestId(), request.getDeliverId());
+            }
+            return DONE;
+        }
         if (log.isDebugEnabled()) {
             log.debug("deliver msg：{}", Func.toJson(request));
         }
+        if (trigger.isAsync()) {
+            return deliverAsync(subscriber, request);
+        }
+        boolean over;
+        try {
+            try {
+                trigger.invoke(request);
+            } finally {
+                over = Polling.Keep.clear();
+            }
+        } catch (Throwable throwable) {
+            rethrowFatal(throwable);
+            return failHandle(subscriber, request, throwable);
+        }
+        return afterSuccess(subscriber, request, over);
+    }
+
+    /**
+     * 投递消息给异步订阅方法，订阅方法返回的CompletionStage完成后执行成功或失败处理；
+     * 处理中的消息数达到订阅器上限时当前线程等待。
+     * 轮询结束标记（Polling.Keep）在调用线程读取并清除，只识别订阅方法返回前的标记
+     */
+    private CompletableFuture<Void> deliverAsync(Listener subscriber, Request<?> request) {
+        Semaphore permits = acquire(subscriber);
+        Object result;
+        boolean over;
+        try {
+            try {
+                result = subscriber.getTrigger().invoke(request);
+            } finally {
+                over = Polling.Keep.clear();
+            }
+        } catch (Throwable throwable) {
+            release(permits);
+            rethrowFatal(throwable);
+            return failHandle(subscriber, request, throwable);
+        }
+        if (!(result instanceof CompletionStage)) {
+            // 返回null视为已完成
+            release(permits);
+            return asyncComplete(subscriber, request, null, over);
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        ((CompletionStage<?>) result).whenComplete((r, throwable) -> {
+            Throwable cause = unwrap(throwable);
+            if (isFatal(cause)) {
+                release(permits);
+                fatal(cause, done);
+                return;
+            }
+            CompletableFuture<Void> next = DONE;
+            try {
+                next = asyncComplete(subscriber, request, cause, over);
+            } finally {
+                release(permits);
+                complete(next, done);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * 异步订阅方法完成处理
+     *
+     * @param subscriber subscriber
+     * @param request    request
+     * @param throwable  异常，成功时为null
+     * @param over       订阅方法返回前是否已标记结束轮询
+     * @return 失败处理完成
+     */
+    private CompletableFuture<Void> asyncComplete(Listener subscriber, Request<?> request, Throwable throwable, boolean over) {
+        if (null != throwable) {
+            return failHandle(subscriber, request, throwable);
+        }
+        return afterSuccess(subscriber, request, over);
+    }
+
+    /**
+     * 订阅方法执行成功后的处理：轮询、成功拦截及幂等记录
+     *
+     * @param subscriber subscriber
+     * @param request    request
+     * @param over       是否已标记结束轮询
+     * @return 处理完成，失败时异常完成
+     */
+    private CompletableFuture<Void> afterSuccess(Listener subscriber, Request<?> request, boolean over) {
         try {
-            trigger.invoke(request);
             // 轮询处理
-            polling(subscriber, request);
-            interceptorConfig.deliverSuccessExecute(request);
-        } catch (Exception exception) {
-            failHandle(subscriber, request, exception);
+            polling(subscriber, request, over);
+            deliverSuccess(subscriber, request);
+        } catch (RuntimeException e) {
+            return afterSuccessError(e);
         }
+        return DONE;
     }
 
     /**
-     * 失败处理
+     * 订阅方法已执行成功，后续处理（轮询、成功拦截、幂等记录）失败时不作为订阅方法失败处理（不重试、不计入熔断），
+     * 投递以该异常完成，消息不确认，由待确认消息重发任务处理
+     */
+    private static CompletableFuture<Void> afterSuccessError(Throwable throwable) {
+        log.error("deliver after success error", throwable);
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(throwable);
+        return failed;
+    }
+
+    /**
+     * 投递成功处理
      *
      * @param subscriber subscriber
      * @param request    request
-     * @param throwable  throwable
      */
-    private void failHandle(Listener subscriber, Request<?> request, Throwable throwable) {
-        if (!(throwable instanceof InvocationTargetException)) {
-            throw new EventBusException(throwable.getCause());
+    private void deliverSuccess(Listener subscriber, Request<?> request) {
+        succeeded(subscriber, request);
+        markProcessed(subscriber, Collections.singletonList(request));
+    }
+
+    /**
+     * 投递成功的熔断统计及拦截器
+     */
+    private void succeeded(Listener subscriber, Request<?> request) {
+        CircuitBreaker breaker = subscriber.getCircuitBreaker();
+        if (null != breaker) {
+            breaker.onSuccess();
+        }
+        interceptorConfig.deliverSuccessExecute(request);
+    }
+
+    /**
+     * 预加载一批消息的幂等记录，容器每拉取一批消息调用一次，只查询一次共享存储；
+     * 未开启消费幂等时不处理
+     *
+     * @param subscriber 订阅者，延时消息可为null（按消息的投递ID）
+     * @param headers    消息头
+     */
+    public void prefetchProcessed(Listener subscriber, List<? extends Request<?>> headers) {
+        if (null == idempotentCache || headers.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(headers.size());
+        for (Request<?> header : headers) {
+            String key = idempotentKey(subscriber, header);
+            if (null != key) {
+                keys.add(key);
+            }
+        }
+        idempotentCache.prefetch(keys);
+    }
+
+    /**
+     * 消息是否已被订阅者处理成功
+     */
+    private boolean processed(Listener subscriber, Request<?> request) {
+        String key = idempotentKey(subscriber, request);
+        return null != key && idempotentCache.contains(key);
+    }
+
+    /**
+     * 记录消息已被订阅者处理成功，轮询订阅器不记录
+     */
+    private void markProcessed(Listener subscriber, List<Request<?>> requests) {
+        if (null == idempotentCache || null != subscriber.getPolling() || requests.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(requests.size());
+        for (Request<?> request : requests) {
+            String key = idempotentKey(subscriber, request);
+            if (null != key) {
+                keys.add(key);
+            }
+        }
+        idempotentCache.add(keys);
+    }
+
+    /**
+     * 幂等记录标识：消息ID + 完整投递ID，同一消息投递给不同订阅器时分别记录（哈希值可能冲突，导致其他订阅器的消息被误判为已处理）
+     */
+    private static String idempotentKey(Listener subscriber, Request<?> request) {
+        String deliverId = request.getDeliverId();
+        if (null == deliverId && null != subscriber && null != subscriber.getTrigger()) {
+            deliverId = subscriber.getTrigger().getDeliverId();
+        }
+        if (null == request.getRequestId() || null == deliverId) {
+            return null;
+        }
+        return request.getRequestId() + ":" + deliverId;
+    }
+
+    /**
+     * 设置消费幂等的共享存储，未设置时只使用本地缓存
+     *
+     * @param idempotentStore 共享存储
+     */
+    public void setIdempotentStore(IdempotentStore idempotentStore) {
+        if (null != idempotentCache) {
+            idempotentCache.setStore(idempotentStore);
+        }
+    }
+
+    /**
+     * 合并投递结果，已完成的结果直接忽略
+     */
+    private static CompletableFuture<Void> join(CompletableFuture<Void> a, CompletableFuture<Void> b) {
+        if (a.isDone() && !a.isCompletedExceptionally()) {
+            return b;
+        }
+        return b.isDone() && !b.isCompletedExceptionally() ? a : CompletableFuture.allOf(a, b);
+    }
+
+    /**
+     * next完成后完成done，next异常完成时done同样异常完成
+     */
+    private static void complete(CompletableFuture<Void> next, CompletableFuture<Void> done) {
+        next.whenComplete((v, throwable) -> {
+            if (null != throwable) {
+                done.completeExceptionally(throwable);
+            } else {
+                done.complete(null);
+            }
+        });
+    }
+
+    /**
+     * 获取一个处理中消息许可，非异步订阅方法或未注册的订阅器不限制
+     *
+     * @param subscriber 订阅者
+     * @return 许可，不限制时为null
+     */
+    private Semaphore acquire(Listener subscriber) {
+        if (!subscriber.getTrigger().isAsync()) {
+            return null;
+        }
+        Semaphore permits = inFlight(subscriber.getRouteId());
+        if (null == permits) {
+            return null;
         }
-        // 获取异常的真正原因
-        throwable = throwable.getCause();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            // 未确认的消息由待确认消息重发任务再次投递
+            Thread.currentThread().interrupt();
+            throw new EventBusException("deliver interrupted while waiting in-flight permit", e);
+        }
+        return permits;
+    }
+
+    private void release(Semaphore permits) {
+        if (null != permits) {
+            permits.release();
+        }
+    }
+
+    /**
+     * 按路由ID获取订阅器的处理中消息许可，首次使用时按订阅器配置创建
+     */
+    private Semaphore inFlight(int routeId) {
+        if (routeId < 0) {
+            return null;
+        }
+        Semaphore[] semaphores = inFlights;
+        if (routeId < semaphores.length && null != semaphores[routeId]) {
+            return semaphores[routeId];
+        }
+        synchronized (this) {
+            semaphores = inFlights;
+            if (routeId >= semaphores.length) {
+                semaphores = Arrays.copyOf(semaphores, Math.max(routeId + 1, registry.getRouteCount()));
+            } else if (null != semaphores[routeId]) {
+                return semaphores[routeId];
+            } else {
+                semaphores = semaphores.clone();
+            }
+            Listener listener = registry.getListener(routeId);
+            int max = null != listener && listener.getMaxInFlight() > 0 ? listener.getMaxInFlight() : config.getMaxInFlight();
+            semaphores[routeId] = new Semaphore(Math.max(1, max));
+            inFlights = semaphores;
+            return semaphores[routeId];
+        }
+    }
+
+    /**
+     * 是否为不可恢复的错误（虚拟机错误、类链接错误），此类错误不作为投递失败处理，不重试
+     */
+    private static boolean isFatal(Throwable throwable) {
+        return throwable instanceof VirtualMachineError || throwable instanceof LinkageError || throwable instanceof ThreadDeath;
+    }
+
+    /**
+     * 不可恢复的错误直接抛出，消息不确认，由未确认消息重发处理
+     */
+    private static void rethrowFatal(Throwable throwable) {
+        if (isFatal(throwable)) {
+            throw (Error) throwable;
+        }
+    }
+
+    /**
+     * 异步订阅方法返回不可恢复的错误时，投递以该错误异常完成，消息不确认
+     */
+    private static void fatal(Throwable throwable, CompletableFuture<Void> done) {
+        log.error("deliver fatal error", throwable);
+        done.completeExceptionally(throwable);
+    }
+
+    /**
+     * 获取CompletionStage异常的原始异常
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && null != throwable.getCause()) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * 失败处理
+     *
+     * @param subscriber subscriber
+     * @param request    request
+     * @param throwable  订阅方法抛出的原始异常
+     * @return 失败处理完成，本地等待重试时在重试完成后完成
+     */
+    private CompletableFuture<Void> failHandle(Listener subscriber, Request<?> request, Throwable throwable) {
         // 发生异常时记录错误日志
         log.error("deliver error", throwable);
+        CircuitBreaker breaker = subscriber.getCircuitBreaker();
+        if (null != breaker) {
+            breaker.onFailure();
+        }
         // 获取订阅器的FailTrigger
         FailTrigger failTrigger = subscriber.getFailTrigger();
         Fail fail = null;
@@ -168,8 +792,7 @@ public class DeliveryEventBus {
         int deliverCount = (null != fail && fail.retryCount() >= 0) ? fail.retryCount() : config.getFail().getRetryCount();
         if (request.getDeliverCount() <= deliverCount) {
             // 如果请求的投递次数小于等于有效的投递次数，则重新尝试投递
-            failReTry(request, fail);
-            return;
+            return failReTry(subscriber, request, fail);
         }
         try {
             // 如果FailTrigger不为空，则执行订阅器的异常处理
@@ -179,25 +802,82 @@ public class DeliveryEventBus {
 
             // 如果全局拦截器配置不为空且包含投递异常拦截器，则执行全局拦截器的异常处理
             interceptorConfig.deliverThrowableExecute(request, throwable);
-        } catch (Exception var2) {
+        } catch (Throwable var2) {
             // 捕获异常并记录错误日志
             log.error("deliveryBus.failHandle error", var2);
         }
+        if (null != deadLetterQueue) {
+            try {
+                deadLetterQueue.add(request, throwable);
+            } catch (Exception e) {
+                log.error("deliveryBus.deadLetter error, requestId={}", request.getRequestId(), e);
+            }
+        }
+        return DONE;
     }
 
     /**
-     * 失败重试
+     * 失败重试，间隔不超过本地重试阈值时在本地等待后重新投递，否则发送延时消息
      *
-     * @param request req
-     * @param fail    fail
+     * @param subscriber subscriber
+     * @param request    req
+     * @param fail       fail
+     * @return 重试完成（本地重试）或已发送延时消息
      */
-    private void failReTry(Request<?> request, Fail fail) {
+    private CompletableFuture<Void> failReTry(Listener subscriber, Request<?> request, Fail fail) {
         // 获取下次投递失败时间
         long delayTime = (null != fail && fail.nextTime() > 0) ? fail.nextTime() : config.getFail().getNextTime();
         request.setDelayTime(delayTime);
         // 投递次数加一
         request.setDeliverCount(request.getDeliverCount() + 1);
+        Long localThreshold = config.getFail().getLocalThreshold();
+        if (null != localThreshold && delayTime <= localThreshold) {
+            CompletableFuture<Void> future = retryScheduler().schedule(delayTime,
+                    () -> deliver(subscriber, request), () -> msgSender.sendDelayMessage(request));
+            if (null != future) {
+                return future;
+            }
+        }
         msgSender.sendDelayMessage(request);
+        return DONE;
+    }
+
+    /**
+     * 获取本地重试调度，首次使用时创建
+     */
+    private LocalRetryScheduler retryScheduler() {
+        LocalRetryScheduler scheduler = retryScheduler;
+        if (null != scheduler) {
+            return scheduler;
+        }
+        synchronized (this) {
+            if (null == retryScheduler) {
+                Integer capacity = config.getFail().getLocalCapacity();
+                retryScheduler = new LocalRetryScheduler(
+                        ExecutorUtil.getProvider(config.getExecutor()).createTaskExecutor(EventBusConstant.RETRY_NAME),
+                        null == capacity ? 0 : capacity);
+            }
+            return retryScheduler;
+        }
+    }
+
+    /**
+     * 设置死信队列，重试投递全部失败的消息写入死信队列
+     *
+     * @param deadLetterQueue 死信队列
+     */
+    public void setDeadLetterQueue(DeadLetterQueue deadLetterQueue) {
+        this.deadLetterQueue = deadLetterQueue;
+    }
+
+    /**
+     * 停止本地重试，等待中的消息保持未确认状态，由待确认消息重发任务再次投递
+     */
+    public void shutdown() {
+        LocalRetryScheduler scheduler = retryScheduler;
+        if (null != scheduler) {
+            scheduler.shutdown();
+        }
     }
 
     /**
@@ -205,26 +885,31 @@ public class DeliveryEventBus {
      *
      * @param subscriber subscriber
      * @param request    req
+     * @param isOver     是否已退出轮询（调用线程上读取并清除的Polling.Keep标记）
      */
-    private void polling(Listener subscriber, Request<?> request) {
+    private void polling(Listener subscriber, Request<?> request, boolean isOver) {
         Polling polling = subscriber.getPolling();
         // 已轮询次数大于轮询次数，则不进行轮询投递
-        // 是否已退出轮询
-        boolean isOver = Polling.Keep.clear();
         if (null == polling
                 || request.getDeliverCount() > polling.count()
                 || isOver) {
             return;
         }
 
-        Long delayTime = request.getDelayTime();
-        Integer deliverCount = request.getDeliverCount();
-
-        String interval = polling.interval();
-        interval = interval.replace("$count", String.valueOf(deliverCount))
-                .replace("$intervalTime", String.valueOf(null == delayTime ? 1 : delayTime));
-        // 获取下次投递失败时间
-        delayTime = CalculateUtil.fixEvalExpression(interval);
+        long intervalTime = null == request.getDelayTime() ? 1 : request.getDelayTime();
+        // 获取下次投递时间，表达式已在注册时编译，未配置间隔时沿用上次间隔
+        IntervalExpression interval = subscriber.getPollingInterval();
+        long delayTime = intervalTime;
+        if (null != interval) {
+            try {
+                delayTime = interval.evalLong(request.getDeliverCount(), intervalTime);
+            } catch (IllegalArgumentException e) {
+                // 表达式配置错误（如运行时除数为0），停止轮询，不视为订阅器投递失败
+                log.error("polling interval expression [{}] is invalid, polling stopped, deliverId={}, requestId={}: {}",
+                        interval, request.getDeliverId(), request.getRequestId(), e.getMessage());
+                return;
+            }
+        }
         request.setDelayTime(delayTime);
         // 投递次数加一
         request.setDeliverCount(request.getDeliverCount() + 1);
@@ -0,0 +1,148 @@
+package com.anthonyzero.eventbus.core.part;
+
+import com.anthonyzero.eventbus.core.api.IdempotentStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消费幂等缓存，记录订阅器已处理成功的消息。
+ * <p>
+ * 本地为有界LRU，共享存储（可选）按批次查询：容器每拉取一批消息调用一次{@link #prefetch(Collection)}，
+ * 本地未命中的记录一次查询共享存储并写入本地，投递时只检查本地；
+ * 共享存储异常时视为未处理（继续投递），不影响消费
+ *
+ */
+@Slf4j
+public class IdempotentCache {
+    /**
+     * 已处理的记录 -> 过期时间（毫秒）
+     */
+    private final Map<String, Long> local;
+
+    /**
+     * 记录保留时长，单位：毫秒
+     */
+    private final long expireMillis;
+
+    /**
+     * 共享存储，未配置时为null
+     */
+    private volatile IdempotentStore store;
+
+    /**
+     * 构造函数
+     *
+     * @param capacity      本地缓存的最大记录数
+     * @param expireSeconds 记录保留时长，单位：秒
+     */
+    public IdempotentCache(int capacity, long expireSeconds) {
+        this.expireMillis = TimeUnit.SECONDS.toMillis(expireSeconds);
+        this.local = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public void setStore(IdempotentStore store) {
+        this.store = store;
+    }
+
+    /**
+     * 预加载一批记录，本地未命中的记录一次查询共享存储
+     *
+     * @param keys 记录标识
+     */
+    public void prefetch(Collection<String> keys) {
+        IdempotentStore current = store;
+        if (null == current || keys.isEmpty()) {
+            return;
+        }
+        List<String> missing = new ArrayList<>(keys.size());
+        long now = System.currentTimeMillis();
+        synchronized (local) {
+            for (String key : keys) {
+                if (!live(key, now)) {
+                    missing.add(key);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Set<String> processed;
+        try {
+            processed = current.contains(missing);
+        } catch (Exception e) {
+            log.error("idempotent store contains error", e);
+            return;
+        }
+        if (null != processed && !processed.isEmpty()) {
+            put(processed, now);
+        }
+    }
+
+    /**
+     * 记录是否已处理（只检查本地）
+     *
+     * @param key 记录标识
+     * @return true：已处理
+     */
+    public boolean contains(String key) {
+        synchronized (local) {
+            return live(key, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 记录已处理，写入本地及共享存储
+     *
+     * @param keys 记录标识
+     */
+    public void add(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        put(keys, System.currentTimeMillis());
+        IdempotentStore current = store;
+        if (null == current) {
+            return;
+        }
+        try {
+            current.add(keys);
+        } catch (Exception e) {
+            log.error("idempotent store add error", e);
+        }
+    }
+
+    private boolean live(String key, long now) {
+        Long expireAt = local.get(key);
+        if (null == expireAt) {
+            return false;
+        }
+        if (expireAt < now) {
+            local.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    private void put(Collection<String> keys, long now) {
+        Long expireAt = now + expireMillis;
+        synchronized (local) {
+            for (String key : keys) {
+                local.put(key, expireAt);
+            }
+        }
+    }
+}
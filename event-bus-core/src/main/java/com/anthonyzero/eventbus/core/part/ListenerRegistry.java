@@ -1,9 +1,11 @@
 package com.anthonyzero.eventbus.core.part;
 
+import com.anthonyzero.eventbus.core.api.MsgBatchListener;
 import com.anthonyzero.eventbus.core.api.MsgDelayListener;
 import com.anthonyzero.eventbus.core.api.MsgListener;
 import com.anthonyzero.eventbus.core.api.annotation.DelayListener;
 import com.anthonyzero.eventbus.core.api.annotation.Fail;
+import com.anthonyzero.eventbus.core.api.annotation.Filter;
 import com.anthonyzero.eventbus.core.api.annotation.Listener;
 import com.anthonyzero.eventbus.core.api.annotation.Polling;
 import com.anthonyzero.eventbus.core.config.GlobalConfig;
@@ -11,13 +13,16 @@ import com.anthonyzero.eventbus.core.metadata.MsgType;
 import com.anthonyzero.eventbus.core.utils.Assert;
 import com.anthonyzero.eventbus.core.utils.Func;
 import com.anthonyzero.eventbus.core.constant.EventBusConstant;
+import com.anthonyzero.eventbus.core.support.CircuitBreaker;
 import com.anthonyzero.eventbus.core.support.FailTrigger;
+import com.anthonyzero.eventbus.core.support.MsgFilter;
 import com.anthonyzero.eventbus.core.support.Trigger;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -50,6 +55,16 @@ public class ListenerRegistry {
      */
     private final Map<String, com.anthonyzero.eventbus.core.support.Listener> delayMap = new ConcurrentHashMap<>();
 
+    /**
+     * 已注册订阅器，下标为路由ID
+     */
+    private final List<com.anthonyzero.eventbus.core.support.Listener> routeList = new ArrayList<>();
+
+    /**
+     * 路由表快照，注册完成后冻结，投递时只读
+     */
+    private volatile Routes routes = new Routes(Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap());
+
     private final GlobalConfig config;
 
     /**
@@ -64,15 +79,21 @@ public class ListenerRegistry {
     /**
      * 注册器
      */
-    public void register(Collection<Object> objs) {
+    public synchronized void register(Collection<Object> objs) {
         Assert.notEmpty(objs, "初始化实例失败！");
-        objs.forEach(this::register);
+        objs.forEach(this::doRegister);
+        freeze();
     }
 
     /**
      * 注册器
      */
-    public void register(Object obj) {
+    public synchronized void register(Object obj) {
+        doRegister(obj);
+        freeze();
+    }
+
+    private void doRegister(Object obj) {
         // 超类、接口实现的消息订阅器
         if (obj instanceof MsgListener || obj instanceof MsgDelayListener) {
             registerInterfaceListeners(obj);
@@ -93,7 +114,11 @@ public class ListenerRegistry {
     private void registerInterfaceListeners(Object obj) {
         // 获取对象的原始类型（存在代理类的情况）
         Class<?> primitiveClass = Func.primitiveClass(obj);
-        Method primitiveMethod = getMethod(primitiveClass, EventBusConstant.ON_MESSAGE); //接口上onMessage方法
+        Map<String, Method> primitiveMethods = getMethods(primitiveClass);
+        Map<String, Method> objMethods = obj.getClass() == primitiveClass ? primitiveMethods : getMethods(obj.getClass());
+        // 批量订阅器接收方法为onMessages
+        String methodName = obj instanceof MsgBatchListener ? EventBusConstant.ON_MESSAGES : EventBusConstant.ON_MESSAGE;
+        Method primitiveMethod = primitiveMethods.get(methodName); //接口上onMessage方法
         if (null == primitiveMethod) {
             return;
         }
@@ -103,10 +128,11 @@ public class ListenerRegistry {
         if (null == fail) {
             fail = primitiveClass.getAnnotation(Fail.class);
         }
+        MsgFilter filter = getFilter(primitiveMethod, primitiveClass);
         //new 失败的触发器
-        FailTrigger failTrigger = null == fail ? null : new FailTrigger(fail, getTrigger(obj, fail.callMethod()));
+        FailTrigger failTrigger = null == fail ? null : new FailTrigger(fail, getTrigger(obj, objMethods, fail.callMethod()));
         // new 业务触发器
-        Trigger trigger = getTrigger(obj, EventBusConstant.ON_MESSAGE);
+        Trigger trigger = getTrigger(obj, objMethods, methodName);
         // 两种类型
         // 接口实现的及时消息订阅器
         if (obj instanceof MsgListener) {
@@ -116,6 +142,7 @@ public class ListenerRegistry {
             interf.getCodes().forEach(code -> {
                 //构造注册
                 com.anthonyzero.eventbus.core.support.Listener listener = new com.anthonyzero.eventbus.core.support.Listener(serviceId, code, concurrency, MsgType.TIMELY, trigger, failTrigger, polling);
+                listener.setFilter(filter);
                 putTimelyMap(listener);
             });
         }
@@ -135,6 +162,21 @@ public class ListenerRegistry {
         }
     }
 
+    /**
+     * 编译订阅过滤条件，方法上未声明时使用类上声明的条件
+     *
+     * @param primitiveMethod 订阅方法
+     * @param primitiveClass  订阅器原始类型
+     * @return 过滤器，未声明时为null
+     */
+    private MsgFilter getFilter(Method primitiveMethod, Class<?> primitiveClass) {
+        Filter[] filters = primitiveMethod.getAnnotationsByType(Filter.class);
+        if (filters.length == 0) {
+            filters = primitiveClass.getAnnotationsByType(Filter.class);
+        }
+        return MsgFilter.compile(filters);
+    }
+
     /**
      * 获取并发数
      *
@@ -155,12 +197,14 @@ public class ListenerRegistry {
     private void registerAnnotationListeners(Object obj, List<Method> methods) {
         // 获取对象对应的原始类型
         Class<?> primitiveClass = Func.primitiveClass(obj);
+        // 按方法名建立一次索引，避免每个方法都遍历一遍getMethods()
+        Map<String, Method> primitiveMethods = getMethods(primitiveClass);
         AtomicBoolean isCreated = new AtomicBoolean(false);
 
         // 遍历方法列表，筛选出带有特定注解的方法
         methods.stream().filter(method -> {
             // 尝试获取原始类型的同名方法
-            Method primitiveMethod = getMethod(primitiveClass, method.getName());
+            Method primitiveMethod = primitiveMethods.get(method.getName());
             if (null == primitiveMethod) {
                 return false;
             }
@@ -177,7 +221,7 @@ public class ListenerRegistry {
             Assert.isTrue(!isCreated.get(), String.format("存在重复的订阅器，一个订阅器类只能存在一个，class：%s", obj.getClass()));
             isCreated.set(true);
             return true;
-        }).forEach(method -> registerAnnotationListeners(obj, primitiveClass, method));
+        }).forEach(method -> registerAnnotationListeners(obj, primitiveMethods, method));
     }
 
 
@@ -186,13 +230,13 @@ public class ListenerRegistry {
      * 该方法用于根据注解配置，将指定的方法注册为消息订阅器，根据注解中的配置项（如消息类型、错误处理方式、并发控制等），
      * 创建并添加到相应的订阅者映射表中（延迟或及时）。
      *
-     * @param obj            实例对象，即包含订阅方法的对象实例。
-     * @param primitiveClass 被订阅方法所在的原始类。
-     * @param method         订阅方法。
+     * @param obj              实例对象，即包含订阅方法的对象实例。
+     * @param primitiveMethods 被订阅方法所在的原始类的方法（key：方法名）。
+     * @param method           订阅方法。
      **/
-    private void registerAnnotationListeners(Object obj, Class<?> primitiveClass, Method method) {
+    private void registerAnnotationListeners(Object obj, Map<String, Method> primitiveMethods, Method method) {
         // 尝试获取与给定方法同名的原始方法
-        Method primitiveMethod = getMethod(primitiveClass, method.getName());
+        Method primitiveMethod = primitiveMethods.get(method.getName());
         if (null == primitiveMethod) {
             return; // 如果找不到原始方法，则直接返回
         }
@@ -207,9 +251,12 @@ public class ListenerRegistry {
         Fail fail;
         List<String> codes;
         Integer concurrency;
+        int maxInFlight;
 
         //还是这两 fail和polling
         Polling polling = primitiveMethod.getAnnotation(Polling.class);
+        // 订阅过滤条件，注册时编译
+        MsgFilter filter = getFilter(primitiveMethod, Func.primitiveClass(obj));
         // 检查订阅方法是否注解了Listener注解
         Listener listener = primitiveMethod.getAnnotation(Listener.class);
         // 判断是及时还是延时
@@ -226,6 +273,7 @@ public class ListenerRegistry {
             fail = listener.fail();
             codes = Arrays.asList(listener.codes());
             concurrency = listener.concurrency();
+            maxInFlight = listener.maxInFlight();
         } else {
             // 检查是否注解了DelayListener注解
             DelayListener delayListener = primitiveMethod.getAnnotation(DelayListener.class);
@@ -234,10 +282,11 @@ public class ListenerRegistry {
             codes = Arrays.asList(delayListener.codes());
             // 若未指定，则使用默认的并发控制值
             concurrency = config.getDelayConcurrency();
+            maxInFlight = delayListener.maxInFlight();
         }
 
         // 创建失败触发器，用于处理订阅执行失败的情况
-        FailTrigger failTrigger = new FailTrigger(fail, getTrigger(obj, fail.callMethod()));
+        FailTrigger failTrigger = new FailTrigger(fail, getTrigger(obj, getMethods(obj.getClass()), fail.callMethod()));
 
         // 遍历消息码列表，为每个消息码创建并注册一个订阅者
         for (String code : codes) {
@@ -245,6 +294,10 @@ public class ListenerRegistry {
             concurrency = getConcurrency(concurrency);
             // 创建订阅者实例
             com.anthonyzero.eventbus.core.support.Listener createListener = new com.anthonyzero.eventbus.core.support.Listener(serviceId, code, concurrency, msgType, trigger, failTrigger, polling);
+            createListener.setMaxInFlight(maxInFlight);
+            if (msgType.isTimely()) {
+                createListener.setFilter(filter);
+            }
             if (msgType.isTimely()) {
                 // 如果是及时消息，则添加到及时触发器订阅者映射表中
                 putTimelyMap(createListener);
@@ -266,6 +319,30 @@ public class ListenerRegistry {
         Assert.isTrue(!timelyMap.containsKey(deliverId), "listenerMap deliverId=" + deliverId + "存在相同的消息处理器");
         log.debug("ListenerRegistry 注册消息监听器deliverId={}", deliverId);
         timelyMap.put(deliverId, listener);
+        listener.setCircuitBreaker(getCircuitBreaker(deliverId, listener.getFailTrigger()));
+        route(listener);
+        Func.warmUp(listener.getTrigger().getBodyType());
+    }
+
+    /**
+     * 创建熔断器，@Fail声明了失败率阈值或全局开启时创建
+     *
+     * @param deliverId   投递ID
+     * @param failTrigger 失败触发器
+     * @return 熔断器，未开启时为null
+     */
+    private CircuitBreaker getCircuitBreaker(String deliverId, FailTrigger failTrigger) {
+        GlobalConfig.CircuitBreaker breaker = config.getCircuitBreaker();
+        Fail fail = null == failTrigger ? null : failTrigger.getFail();
+        double failureRate = null != fail && fail.breakerFailureRate() > 0 ? fail.breakerFailureRate() : 0;
+        if (failureRate <= 0) {
+            if (!Boolean.TRUE.equals(breaker.getEnabled())) {
+                return null;
+            }
+            failureRate = breaker.getFailureRate();
+        }
+        long openSeconds = null != fail && fail.breakerOpenSeconds() > 0 ? fail.breakerOpenSeconds() : breaker.getOpenSeconds();
+        return new CircuitBreaker(deliverId, failureRate, breaker.getWindow(), TimeUnit.SECONDS.toMillis(openSeconds));
     }
 
     /**
@@ -278,38 +355,50 @@ public class ListenerRegistry {
         Assert.isTrue(!delayMap.containsKey(deliverId), "subscribeDelay deliverId=" + deliverId + "存在相同的延时消息处理器");
         log.debug("ListenerRegistry 注册消息监听器deliverId={}", deliverId);
         delayMap.put(deliverId, listener);
+        route(listener);
+        Func.warmUp(listener.getTrigger().getBodyType());
+    }
+
+    /**
+     * 分配路由ID
+     */
+    private void route(com.anthonyzero.eventbus.core.support.Listener listener) {
+        listener.setRouteId(routeList.size());
+        routeList.add(listener);
+    }
+
+    /**
+     * 冻结路由表，生成只读快照
+     */
+    private void freeze() {
+        this.routes = new Routes(routeList, timelyMap, delayMap);
     }
 
     /**
      * 获取触发器
      *
      * @param obj        _this
+     * @param methods    obj的方法（key：方法名）
      * @param methodName method name
      * @return tg
      */
-    private Trigger getTrigger(Object obj, String methodName) {
-        return Trigger.of(obj, getMethod(obj.getClass(), methodName));
+    private Trigger getTrigger(Object obj, Map<String, Method> methods, String methodName) {
+        return Trigger.of(obj, Func.isEmpty(methodName) ? null : methods.get(methodName));
     }
 
     /**
-     * 获取触发器
+     * 获取类的公共方法，同名方法取第一个
      *
-     * @param cla        cla
-     * @param methodName method name
-     * @return mt
+     * @param cla cla
+     * @return key：方法名
      */
-    private Method getMethod(Class<?> cla, String methodName) {
-        if (Func.isEmpty(methodName)) {
-            return null;
-        }
-        Method method = null;
-        for (Method mt : cla.getMethods()) {
-            if (mt.getName().equals(methodName)) {
-                method = mt;
-                break;
-            }
+    private Map<String, Method> getMethods(Class<?> cla) {
+        Method[] methods = cla.getMethods();
+        Map<String, Method> result = new HashMap<>(methods.length * 2);
+        for (Method mt : methods) {
+            result.putIfAbsent(mt.getName(), mt);
         }
-        return method;
+        return result;
     }
 
     /**
@@ -319,7 +408,7 @@ public class ListenerRegistry {
      * @return listener
      */
     public com.anthonyzero.eventbus.core.support.Listener getTimelyListener(String deliverId) {
-        return timelyMap.get(deliverId);
+        return null == deliverId ? null : routes.timely.get(deliverId);
     }
 
     /**
@@ -329,7 +418,27 @@ public class ListenerRegistry {
      * @return listener
      */
     public com.anthonyzero.eventbus.core.support.Listener getDelayListener(String deliverId) {
-        return delayMap.get(deliverId);
+        return null == deliverId ? null : routes.delay.get(deliverId);
+    }
+
+    /**
+     * 按路由ID获取订阅器
+     *
+     * @param routeId 路由ID{@link com.anthonyzero.eventbus.core.support.Listener#getRouteId()}
+     * @return listener，不存在时为null
+     */
+    public com.anthonyzero.eventbus.core.support.Listener getListener(int routeId) {
+        com.anthonyzero.eventbus.core.support.Listener[] listeners = routes.listeners;
+        return routeId >= 0 && routeId < listeners.length ? listeners[routeId] : null;
+    }
+
+    /**
+     * 路由ID数量（已注册订阅器数量），可用于按路由ID建立数组索引的订阅器状态
+     *
+     * @return 数量
+     */
+    public int getRouteCount() {
+        return routes.listeners.length;
     }
 
     /**
@@ -338,7 +447,7 @@ public class ListenerRegistry {
      * @return listeners
      */
     public List<com.anthonyzero.eventbus.core.support.Listener> getTimelyListeners() {
-        return new ArrayList<>(timelyMap.values());
+        return new ArrayList<>(routes.timely.values());
     }
 
     /**
@@ -347,6 +456,24 @@ public class ListenerRegistry {
      * @return listeners
      */
     public List<com.anthonyzero.eventbus.core.support.Listener> getDelayListeners() {
-        return new ArrayList<>(delayMap.values());
+        return new ArrayList<>(routes.delay.values());
+    }
+
+    /**
+     * 路由表快照（只读）
+     * listeners按路由ID下标存储；timely、delay为按投递ID的查找表，兼容stream中已有消息携带的投递ID
+     */
+    private static final class Routes {
+        private final com.anthonyzero.eventbus.core.support.Listener[] listeners;
+        private final Map<String, com.anthonyzero.eventbus.core.support.Listener> timely;
+        private final Map<String, com.anthonyzero.eventbus.core.support.Listener> delay;
+
+        private Routes(List<com.anthonyzero.eventbus.core.support.Listener> listeners,
+                       Map<String, com.anthonyzero.eventbus.core.support.Listener> timely,
+                       Map<String, com.anthonyzero.eventbus.core.support.Listener> delay) {
+            this.listeners = listeners.toArray(new com.anthonyzero.eventbus.core.support.Listener[0]);
+            this.timely = Collections.unmodifiableMap(new LinkedHashMap<>(timely));
+            this.delay = Collections.unmodifiableMap(new LinkedHashMap<>(delay));
+        }
     }
 }
@@ -0,0 +1,128 @@
+package com.anthonyzero.eventbus.core.part;
+
+import com.anthonyzero.eventbus.core.utils.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 本地重试调度，间隔较短的失败重试在进程内等待后再次投递，不经过延时消息。
+ * 等待期间消息保持未确认状态（返回的投递结果未完成），进程退出时由待确认消息重发任务再次投递；
+ * 等待数达到上限或无法执行时，通过备用方式（延时消息）重试
+ *
+ */
+@Slf4j
+public class LocalRetryScheduler {
+    /**
+     * 定时触发，只负责交由执行器执行
+     */
+    private final ScheduledThreadPoolExecutor timer;
+
+    /**
+     * 重试执行器
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 最大等待数
+     */
+    private final int capacity;
+
+    /**
+     * 当前等待数
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * 构造函数
+     *
+     * @param executor 重试执行器，execute需阻塞等待，不可拒绝任务
+     * @param capacity 最大等待数
+     */
+    public LocalRetryScheduler(ExecutorService executor, int capacity) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(LocalRetryScheduler.class.getSimpleName() + "-", true));
+    }
+
+    /**
+     * 延迟重试
+     *
+     * @param delaySeconds 延迟时间，单位：秒
+     * @param retry        重试投递
+     * @param fallback     无法在本地重试时的备用重试方式
+     * @return 重试完成，等待数达到上限时返回null（未接收）
+     */
+    public CompletableFuture<Void> schedule(long delaySeconds, Supplier<CompletableFuture<Void>> retry, Runnable fallback) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            return null;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            timer.schedule(() -> dispatch(retry, fallback, done), delaySeconds, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            return null;
+        }
+        return done;
+    }
+
+    private void dispatch(Supplier<CompletableFuture<Void>> retry, Runnable fallback, CompletableFuture<Void> done) {
+        pending.decrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    retry.get().whenComplete((v, throwable) -> {
+                        // 重试投递异常完成（如订阅方法成功后的处理失败）时消息不确认
+                        if (null != throwable) {
+                            done.completeExceptionally(throwable);
+                        } else {
+                            done.complete(null);
+                        }
+                    });
+                } catch (Throwable e) {
+                    log.error("local retry error", e);
+                    fallback(fallback, done);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fallback(fallback, done);
+        }
+    }
+
+    /**
+     * 备用重试成功后才完成，失败时保持未确认状态，由待确认消息重发任务再次投递
+     */
+    private void fallback(Runnable fallback, CompletableFuture<Void> done) {
+        try {
+            fallback.run();
+            done.complete(null);
+        } catch (Exception e) {
+            log.error("local retry fallback error", e);
+        }
+    }
+
+    /**
+     * 当前等待重试的消息数
+     *
+     * @return 等待数
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * 停止调度，未执行的重试保持未确认状态
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        executor.shutdown();
+    }
+}
@@ -1,8 +1,7 @@
 package com.anthonyzero.eventbus.core.part;
 
 import com.anthonyzero.eventbus.core.utils.Assert;
-import com.anthonyzero.eventbus.core.utils.NamedThreadFactory;
-import com.anthonyzero.eventbus.core.utils.WaitThreadPoolExecutor;
+import com.anthonyzero.eventbus.core.utils.ExecutorUtil;
 import com.anthonyzero.eventbus.core.constant.EventBusConstant;
 import com.anthonyzero.eventbus.core.support.task.Task;
 import com.anthonyzero.eventbus.core.support.task.Timer;
@@ -10,8 +9,7 @@ import lombok.Getter;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
 
 /**
  * 定时任务注册中心，负责管理和调度各种定时任务。
@@ -29,7 +27,7 @@ public class TaskRegistry {
      * 线程池执行器，用于执行任务
      */
     @Getter
-    private final WaitThreadPoolExecutor poolExecutor;
+    private final ExecutorService poolExecutor;
     /**
      * 任务映射，存储所有任务
      */
@@ -45,9 +43,9 @@ public class TaskRegistry {
     /**
      * 构造函数，使用提供的线程池执行器创建TaskRegistry。
      *
-     * @param poolExecutor 自定义的线程池执行器
+     * @param poolExecutor 自定义的线程池执行器，execute需阻塞等待，不可拒绝任务
      */
-    public TaskRegistry(WaitThreadPoolExecutor poolExecutor) {
+    public TaskRegistry(ExecutorService poolExecutor) {
         this.poolExecutor = poolExecutor;
     }
 
@@ -103,8 +101,7 @@ public class TaskRegistry {
      *
      * @return 默认的线程池执行器
      */
-    private WaitThreadPoolExecutor createDefaultPool() {
-        return new WaitThreadPoolExecutor(1,
-                10, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(10), new NamedThreadFactory(EventBusConstant.TASK_NAME));
+    private ExecutorService createDefaultPool() {
+        return ExecutorUtil.getProvider(null).createTaskExecutor(EventBusConstant.TASK_NAME);
     }
 }
@@ -0,0 +1,167 @@
+package com.anthonyzero.eventbus.core.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 订阅器熔断器，按最近投递结果的失败率熔断。
+ * <p>
+ * 1. 关闭：正常拉取消息，最近window次投递的失败率达到阈值时打开；
+ * 2. 打开：停止拉取该订阅器的消息，持续openMillis后进入半开；
+ * 3. 半开：允许一次拉取作为探测，探测消息投递成功时关闭，失败时再次打开；
+ * 探测未产生投递结果（如无消息）时，间隔openMillis后再次探测。
+ *
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 名称（投递ID），用于日志
+     */
+    private final String name;
+
+    /**
+     * 失败率阈值，0~1
+     */
+    private final double failureRate;
+
+    /**
+     * 打开持续时长，单位：毫秒
+     */
+    private final long openMillis;
+
+    /**
+     * 最近投递结果，true：失败
+     */
+    private final boolean[] window;
+    private int index;
+    private int size;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+
+    /**
+     * 打开状态下允许探测的时间
+     */
+    private volatile long probeAt;
+
+    /**
+     * 构造函数
+     *
+     * @param name        名称
+     * @param failureRate 失败率阈值，0~1
+     * @param window      统计的最近投递次数，投递次数不足时不打开
+     * @param openMillis  打开持续时长，单位：毫秒
+     */
+    public CircuitBreaker(String name, double failureRate, int window, long openMillis) {
+        this.name = name;
+        this.failureRate = failureRate;
+        this.window = new boolean[Math.max(1, window)];
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 是否允许拉取消息，打开状态到期后转为半开并允许一次探测拉取
+     *
+     * @return true：允许
+     */
+    public boolean allowRead() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now < probeAt) {
+            return false;
+        }
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (now < probeAt) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeAt = now + openMillis;
+            return true;
+        }
+    }
+
+    /**
+     * 记录投递成功
+     */
+    public void onSuccess() {
+        if (state == State.OPEN) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                log.info("[Eventbus] listener {} circuit closed", name);
+                reset();
+                state = State.CLOSED;
+                return;
+            }
+            if (state == State.CLOSED) {
+                record(false);
+            }
+        }
+    }
+
+    /**
+     * 记录投递失败
+     */
+    public void onFailure() {
+        if (state == State.OPEN) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            if (state == State.CLOSED) {
+                record(true);
+                if (size >= window.length && failures >= failureRate * size) {
+                    open();
+                }
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (size == window.length) {
+            if (window[index]) {
+                failures--;
+            }
+        } else {
+            size++;
+        }
+        window[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % window.length;
+    }
+
+    private void open() {
+        log.warn("[Eventbus] listener {} circuit open, pause consuming for {}ms", name, openMillis);
+        reset();
+        probeAt = System.currentTimeMillis() + openMillis;
+        state = State.OPEN;
+    }
+
+    private void reset() {
+        index = 0;
+        size = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.anthonyzero.eventbus.core.support;
+
+/**
+ * 订阅方法调用器，注册订阅器时按方法参数形式生成，投递时直接调用，
+ * 不经过反射，订阅方法抛出的异常原样抛出，返回订阅方法的返回值（void方法为null）
+ *
+ */
+@FunctionalInterface
+public interface Invoker {
+
+    /**
+     * 调用订阅方法
+     *
+     * @param message   消息
+     * @param throwable 异常，仅失败回调方法使用
+     * @return 订阅方法返回值
+     * @throws Throwable 订阅方法抛出的异常
+     */
+    Object invoke(Object message, Throwable throwable) throws Throwable;
+
+    /**
+     * 无参数方法
+     */
+    @FunctionalInterface
+    interface Arity0 {
+        void invoke() throws Throwable;
+    }
+
+    /**
+     * 单参数方法
+     */
+    @FunctionalInterface
+    interface Arity1 {
+        void invoke(Object arg0) throws Throwable;
+    }
+
+    /**
+     * 两个参数方法
+     */
+    @FunctionalInterface
+    interface Arity2 {
+        void invoke(Object arg0, Object arg1) throws Throwable;
+    }
+
+    /**
+     * 有返回值的无参数方法
+     */
+    @FunctionalInterface
+    interface Call0 {
+        Object invoke() throws Throwable;
+    }
+
+    /**
+     * 有返回值的单参数方法
+     */
+    @FunctionalInterface
+    interface Call1 {
+        Object invoke(Object arg0) throws Throwable;
+    }
+
+    /**
+     * 有返回值的两个参数方法
+     */
+    @FunctionalInterface
+    interface Call2 {
+        Object invoke(Object arg0, Object arg1) throws Throwable;
+    }
+}
@@ -0,0 +1,181 @@
+package com.anthonyzero.eventbus.core.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 订阅方法调用器构建
+ * 0~2个参数的方法通过LambdaMetafactory生成直接调用的实现，
+ * 方法所在类不可访问或参数更多时退化为反射调用（同样原样抛出订阅方法的异常）
+ *
+ */
+@Slf4j
+final class InvokerFactory {
+    private InvokerFactory() {
+    }
+
+    private static final int NONE = 0;
+    private static final int MESSAGE = 1;
+    private static final int THROWABLE = 2;
+
+    /**
+     * 构建调用器
+     *
+     * @param bean           调用对象
+     * @param method         方法
+     * @param messageIndex   消息参数位置，-1：无
+     * @param throwableIndex 异常参数位置，-1：无
+     * @return 调用器
+     */
+    static Invoker create(Object bean, Method method, int messageIndex, int throwableIndex) {
+        int count = method.getParameterCount();
+        if (count <= 2 && isVisible(method)) {
+            try {
+                return lambda(bean, method, messageIndex, throwableIndex);
+            } catch (Throwable e) {
+                log.debug("Invoker lambda unavailable, fallback to reflection: {}", method, e);
+            }
+        }
+        return reflect(bean, method, messageIndex, throwableIndex);
+    }
+
+    private static Invoker lambda(Object bean, Method method, int messageIndex, int throwableIndex) throws Throwable {
+        int count = method.getParameterCount();
+        boolean call = void.class != method.getReturnType();
+        Object fn = metafactory(bean, method, call);
+        int kind0 = kind(0, messageIndex, throwableIndex);
+        int kind1 = kind(1, messageIndex, throwableIndex);
+        if (call) {
+            // 有返回值的方法（如返回CompletionStage的异步方法）
+            if (count == 0) {
+                Invoker.Call0 f = (Invoker.Call0) fn;
+                return (message, throwable) -> f.invoke();
+            }
+            if (count == 1) {
+                Invoker.Call1 f = (Invoker.Call1) fn;
+                return (message, throwable) -> f.invoke(arg(kind0, message, throwable));
+            }
+            Invoker.Call2 f = (Invoker.Call2) fn;
+            return (message, throwable) -> f.invoke(arg(kind0, message, throwable), arg(kind1, message, throwable));
+        }
+        if (count == 0) {
+            Invoker.Arity0 f = (Invoker.Arity0) fn;
+            return (message, throwable) -> {
+                f.invoke();
+                return null;
+            };
+        }
+        if (count == 1) {
+            Invoker.Arity1 f = (Invoker.Arity1) fn;
+            if (kind0 == MESSAGE) {
+                return (message, throwable) -> {
+                    f.invoke(message);
+                    return null;
+                };
+            }
+            return (message, throwable) -> {
+                f.invoke(arg(kind0, message, throwable));
+                return null;
+            };
+        }
+        Invoker.Arity2 f = (Invoker.Arity2) fn;
+        return (message, throwable) -> {
+            f.invoke(arg(kind0, message, throwable), arg(kind1, message, throwable));
+            return null;
+        };
+    }
+
+    private static Object metafactory(Object bean, Method method, boolean call) throws Throwable {
+        int count = method.getParameterCount();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle impl = lookup.unreflect(method);
+        Class<?> samClass;
+        if (call) {
+            samClass = count == 0 ? Invoker.Call0.class : (count == 1 ? Invoker.Call1.class : Invoker.Call2.class);
+        } else {
+            samClass = count == 0 ? Invoker.Arity0.class : (count == 1 ? Invoker.Arity1.class : Invoker.Arity2.class);
+        }
+        Class<?>[] erased = new Class<?>[count];
+        Arrays.fill(erased, Object.class);
+        Class<?> returnType = call ? Object.class : void.class;
+        CallSite site = LambdaMetafactory.metafactory(lookup, "invoke",
+                MethodType.methodType(samClass, method.getDeclaringClass()),
+                MethodType.methodType(returnType, erased),
+                impl,
+                MethodType.methodType(call ? method.getReturnType() : void.class, method.getParameterTypes()));
+        return site.getTarget().invoke(bean);
+    }
+
+    private static Invoker reflect(Object bean, Method method, int messageIndex, int throwableIndex) {
+        int count = method.getParameterCount();
+        method.setAccessible(true);
+        return (message, throwable) -> {
+            Object[] args = new Object[count];
+            if (messageIndex >= 0) {
+                args[messageIndex] = message;
+            }
+            if (throwableIndex >= 0) {
+                args[throwableIndex] = throwable;
+            }
+            try {
+                return method.invoke(bean, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private static int kind(int index, int messageIndex, int throwableIndex) {
+        if (index == messageIndex) {
+            return MESSAGE;
+        }
+        return index == throwableIndex ? THROWABLE : NONE;
+    }
+
+    private static Object arg(int kind, Object message, Throwable throwable) {
+        if (kind == MESSAGE) {
+            return message;
+        }
+        return kind == THROWABLE ? throwable : null;
+    }
+
+    /**
+     * 生成的调用类由本类的类加载器解析，方法所在类及参数类型需对其可见（如devtools重启类加载器下的类则不可见），
+     * 且参数不能为基本类型
+     */
+    private static boolean isVisible(Method method) {
+        ClassLoader loader = InvokerFactory.class.getClassLoader();
+        if (!isVisible(loader, method.getDeclaringClass())) {
+            return false;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isVisible(loader, type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(ClassLoader loader, Class<?> type) {
+        if (type.isPrimitive()) {
+            // 基本类型参数无法接收null
+            return false;
+        }
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        try {
+            return Class.forName(type.getName(), false, loader) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.anthonyzero.eventbus.core.api.annotation.Polling;
 import com.anthonyzero.eventbus.core.config.GlobalConfig;
 import com.anthonyzero.eventbus.core.metadata.MsgType;
 import com.anthonyzero.eventbus.core.utils.Func;
+import com.anthonyzero.eventbus.core.utils.IntervalExpression;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -29,6 +30,10 @@ public class Listener {
      * 定义并发级别，默认{@link GlobalConfig#getConcurrency()}。
      */
     private int concurrency;
+    /**
+     * 异步订阅方法同时处理中的最大消息数，小于1时使用{@link GlobalConfig#getMaxInFlight()}
+     */
+    private int maxInFlight;
     /**
      * 消息类型
      */
@@ -47,6 +52,27 @@ public class Listener {
      */
     private Polling polling;
 
+    /**
+     * 编译后的轮询间隔表达式，设置轮询配置时编译，未配置间隔时为null
+     */
+    private IntervalExpression pollingInterval;
+
+    /**
+     * 订阅过滤器，未声明过滤条件时为null
+     */
+    private MsgFilter filter;
+
+    /**
+     * 熔断器，未开启熔断时为null
+     */
+    private CircuitBreaker circuitBreaker;
+
+    /**
+     * 路由ID，注册时由{@link com.anthonyzero.eventbus.core.part.ListenerRegistry}分配，
+     * 为路由表快照中的下标，仅在当前进程内有效，未注册时为-1
+     */
+    private int routeId = -1;
+
     public Listener(String serviceId, String code, int concurrency, MsgType type) {
         this.serviceId = serviceId;
         this.code = code;
@@ -55,13 +81,22 @@ public class Listener {
     }
 
     public Listener(String serviceId, String code, int concurrency, MsgType type, Trigger trigger, FailTrigger failTrigger, Polling polling) {
-        Polling.ValidatorInterval.isValid(null == polling ? null : polling.interval());
         this.serviceId = serviceId;
         this.code = code;
         this.concurrency = concurrency;
         this.type = type;
         this.trigger = trigger;
         this.failTrigger = failTrigger;
+        setPolling(polling);
+    }
+
+    /**
+     * 设置轮询配置，同时编译轮询间隔表达式
+     *
+     * @param polling 轮询配置
+     */
+    public void setPolling(Polling polling) {
+        this.pollingInterval = Polling.ValidatorInterval.compile(null == polling ? null : polling.interval());
         this.polling = polling;
     }
 
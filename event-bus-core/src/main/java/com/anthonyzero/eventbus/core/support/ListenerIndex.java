@@ -0,0 +1,128 @@
+package com.anthonyzero.eventbus.core.support;
+
+import com.anthonyzero.eventbus.core.exception.EventBusException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 编译期生成的订阅器索引（event-bus-processor），
+ * 包含索引文件的jar或目录只处理索引中的类，其他位置的bean仍需扫描
+ *
+ */
+@Slf4j
+public final class ListenerIndex {
+    /**
+     * 索引文件位置
+     */
+    public static final String INDEX_LOCATION = "META-INF/eventbus/listener.index";
+
+    /**
+     * 索引中的订阅器类
+     */
+    private final List<Class<?>> classes;
+    /**
+     * 包含索引文件的jar或目录
+     */
+    private final Set<String> locations;
+
+    private ListenerIndex(List<Class<?>> classes, Set<String> locations) {
+        this.classes = classes;
+        this.locations = locations;
+    }
+
+    /**
+     * 加载索引
+     *
+     * @param classLoader 类加载器
+     * @return 索引，不存在索引时为null
+     */
+    public static ListenerIndex load(ClassLoader classLoader) {
+        Set<String> names = new LinkedHashSet<>();
+        Set<String> locations = new HashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                String path = url.toString();
+                locations.add(normalize(path.substring(0, path.length() - INDEX_LOCATION.length())));
+                read(url, names);
+            }
+        } catch (IOException e) {
+            throw new EventBusException("load listener index fail", e);
+        }
+        List<Class<?>> classes = new ArrayList<>(names.size());
+        for (String name : names) {
+            try {
+                classes.add(Class.forName(name, false, classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                // 增量编译残留的已删除类
+                log.debug("listener index class not found: {}", name);
+            }
+        }
+        return new ListenerIndex(classes, locations);
+    }
+
+    /**
+     * 索引中的订阅器类
+     */
+    public List<Class<?>> getClasses() {
+        return classes;
+    }
+
+    /**
+     * 类所在的jar或目录是否包含索引文件，包含时该位置的订阅器均已在索引中，无需扫描
+     *
+     * @param cla 类
+     * @return true：已索引
+     */
+    public boolean covers(Class<?> cla) {
+        CodeSource codeSource = cla.getProtectionDomain().getCodeSource();
+        if (null == codeSource || null == codeSource.getLocation()) {
+            return false;
+        }
+        return locations.contains(normalize(codeSource.getLocation().toString()));
+    }
+
+    /**
+     * 统一jar或目录的URL格式：jar:file:/a.jar!/ 与 file:/a.jar 视为同一位置
+     */
+    private static String normalize(String location) {
+        if (location.startsWith("jar:")) {
+            location = location.substring("jar:".length());
+        }
+        if (location.endsWith("!/")) {
+            location = location.substring(0, location.length() - 2);
+        }
+        if (location.endsWith("/")) {
+            location = location.substring(0, location.length() - 1);
+        }
+        return location;
+    }
+
+    private static void read(URL url, Set<String> names) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    names.add(line);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.anthonyzero.eventbus.core.support;
+
+import com.anthonyzero.eventbus.core.api.annotation.Filter;
+import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.utils.Assert;
+import com.anthonyzero.eventbus.core.utils.Func;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 订阅过滤器，注册时由{@link Filter}编译而成，投递时先判断消息头条件，
+ * 通过后再判断消息体条件（消息体按通用结构Map/List解析后按JSON Pointer取值）
+ *
+ */
+public final class MsgFilter {
+
+    /**
+     * 消息头条件
+     */
+    private final Condition<Request<?>>[] headerConditions;
+
+    /**
+     * 消息体条件
+     */
+    private final Condition<Object>[] bodyConditions;
+
+    private MsgFilter(List<Condition<Request<?>>> headerConditions, List<Condition<Object>> bodyConditions) {
+        this.headerConditions = toArray(headerConditions);
+        this.bodyConditions = toArray(bodyConditions);
+    }
+
+    /**
+     * 编译过滤条件
+     *
+     * @param filters 过滤条件注解
+     * @return 过滤器，无条件时为null
+     */
+    public static MsgFilter compile(Filter[] filters) {
+        if (Func.isEmpty(filters)) {
+            return null;
+        }
+        List<Condition<Request<?>>> headers = new ArrayList<>(filters.length);
+        List<Condition<Object>> bodies = new ArrayList<>(filters.length);
+        for (Filter filter : filters) {
+            boolean isHeader = !Func.isEmpty(filter.header());
+            Assert.isTrue(isHeader != !Func.isEmpty(filter.body()), "@Filter header和body必须且只能设置一个");
+            Assert.isTrue(!Func.isEmpty(filter.value()), "@Filter value不能为空");
+            Assert.isTrue(filter.op() != Filter.Operator.EQUALS || filter.value().length == 1, "@Filter EQUALS只能设置一个值");
+            if (isHeader) {
+                headers.add(new Condition<>(headerAccessor(filter.header()), filter.op(), filter.value()));
+            } else {
+                bodies.add(new Condition<>(pointerAccessor(filter.body()), filter.op(), filter.value()));
+            }
+        }
+        return new MsgFilter(headers, bodies);
+    }
+
+    /**
+     * 消息头条件是否全部满足
+     *
+     * @param header 消息头
+     * @return true：满足
+     */
+    public boolean matchHeader(Request<?> header) {
+        for (Condition<Request<?>> condition : headerConditions) {
+            if (!condition.test(header)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否存在消息体条件
+     *
+     * @return true：存在
+     */
+    public boolean hasBodyConditions() {
+        return bodyConditions.length > 0;
+    }
+
+    /**
+     * 消息体条件是否全部满足
+     *
+     * @param body 按通用结构解析的消息体（Map、List、基本类型）
+     * @return true：满足
+     */
+    public boolean matchBody(Object body) {
+        for (Condition<Object> condition : bodyConditions) {
+            if (!condition.test(body)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 消息头取值
+     */
+    private static Function<Request<?>, String> headerAccessor(String name) {
+        switch (name) {
+            case "serviceId":
+                return Request::getServiceId;
+            case "code":
+                return Request::getCode;
+            case "key":
+                return Request::getKey;
+            case "requestId":
+                return Request::getRequestId;
+            case "type":
+                return r -> null == r.getType() ? null : r.getType().name();
+            default:
+                return r -> null == r.getHeaders() ? null : r.getHeaders().get(name);
+        }
+    }
+
+    /**
+     * JSON Pointer取值（RFC 6901），路径在注册时拆分
+     */
+    private static Function<Object, String> pointerAccessor(String pointer) {
+        Assert.isTrue(pointer.startsWith("/"), "@Filter body必须为JSON Pointer格式（以/开头）：" + pointer);
+        String[] tokens = pointer.substring(1).split("/", -1);
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokens[i].replace("~1", "/").replace("~0", "~");
+        }
+        return body -> {
+            Object node = body;
+            for (String token : tokens) {
+                if (node instanceof Map) {
+                    node = ((Map<?, ?>) node).get(token);
+                } else if (node instanceof List) {
+                    List<?> list = (List<?>) node;
+                    int index = index(token);
+                    node = index >= 0 && index < list.size() ? list.get(index) : null;
+                } else {
+                    return null;
+                }
+            }
+            return null == node || node instanceof Map || node instanceof List ? null : node.toString();
+        };
+    }
+
+    private static int index(String token) {
+        if (token.isEmpty() || token.length() > 9) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Condition<T>[] toArray(List<Condition<T>> conditions) {
+        return conditions.toArray(new Condition[0]);
+    }
+
+    /**
+     * 单个条件
+     */
+    private static final class Condition<T> {
+        private final Function<T, String> accessor;
+        private final Filter.Operator op;
+        private final String value;
+        private final Set<String> values;
+        private final String[] prefixes;
+
+        Condition(Function<T, String> accessor, Filter.Operator op, String[] values) {
+            this.accessor = accessor;
+            this.op = op;
+            this.value = values[0];
+            this.values = new HashSet<>(Arrays.asList(values));
+            this.prefixes = values;
+        }
+
+        boolean test(T target) {
+            String actual = accessor.apply(target);
+            if (null == actual) {
+                return false;
+            }
+            switch (op) {
+                case EQUALS:
+                    return value.equals(actual);
+                case IN:
+                    return values.contains(actual);
+                default:
+                    for (String prefix : prefixes) {
+                        if (actual.startsWith(prefix)) {
+                            return true;
+                        }
+                    }
+                    return false;
+            }
+        }
+    }
+}
@@ -4,10 +4,18 @@ import com.anthonyzero.eventbus.core.metadata.Message;
 import com.anthonyzero.eventbus.core.metadata.Request;
 import com.anthonyzero.eventbus.core.utils.Assert;
 import com.anthonyzero.eventbus.core.utils.Func;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 /**
  * 触发器实体 核心
@@ -38,6 +46,11 @@ public class Trigger {
      */
     private Type messageDataType;
 
+    /**
+     * 接收数据所在参数数据类型的原始类型
+     */
+    private Class<?> messageDataClass;
+
     /**
      * 异常所在参数列表位置
      */
@@ -48,6 +61,30 @@ public class Trigger {
      */
     private int paramsCount;
 
+    /**
+     * 是否为批量接收（参数为List&lt;Message&lt;T&gt;&gt;），一次接收单次拉取的全部消息
+     */
+    private boolean batch;
+
+    /**
+     * 是否为异步方法（返回CompletionStage/CompletableFuture），返回的结果完成时才算投递结束
+     */
+    private boolean async;
+
+    /**
+     * 投递ID（类完全限定名+方法名），构建时生成，投递时不再重复拼接
+     */
+    @Setter(AccessLevel.NONE)
+    private String deliverId;
+
+    /**
+     * 方法调用器，注册时生成
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Invoker invoker;
+
 
     protected Trigger(Object invokeBean, Method method) {
         this.invokeBean = invokeBean;
@@ -68,20 +105,21 @@ public class Trigger {
     }
 
     /**
-     * 投递ID
+     * 消息体反序列化的目标类型，未声明消息参数时按Object解析
      */
-    public String getDeliverId() {
-        return Func.getDeliverId(Func.primitiveClass(invokeBean), method.getName());
+    public Type getBodyType() {
+        return null == messageDataType ? Object.class : messageDataType;
     }
 
     /**
      * 触发调用
      *
      * @param message 消息
+     * @return 订阅方法返回值，异步方法为CompletionStage
      */
     @SuppressWarnings("all")
-    public void invoke(Message message) throws InvocationTargetException, IllegalAccessException {
-        invoke(message, null);
+    public Object invoke(Message message) throws Throwable {
+        return invoke(message, null);
     }
 
     /**
@@ -89,26 +127,100 @@ public class Trigger {
      *
      * @param message   消息
      * @param throwable 异常
+     * @return 订阅方法返回值，异步方法为CompletionStage
+     * @throws Throwable 订阅方法抛出的原始异常
      */
     @SuppressWarnings("all")
-    public void invoke(Message message, Throwable throwable) throws InvocationTargetException, IllegalAccessException {
+    public Object invoke(Message message, Throwable throwable) throws Throwable {
+        if (batch) {
+            // 批量接收方法单条投递（失败重试、延时消息）
+            return invokeBatch(Collections.singletonList(message));
+        }
         Request request = (Request) message; //sender
         Object oldBody = request.getBody();
+        // 消费链路已按messageDataType解析消息体时无需再次转换
+        boolean convert = this.messageDataIndex >= 0 && !isTypedBody(oldBody);
+        Object result = null;
         try {
-            Object[] args = new Object[this.paramsCount];
-            if (this.paramsCount > 0) {
-                if (this.messageDataIndex >= 0) {
-                    request.setBody(Func.parseObject(message.getBody(), messageDataType));
-                    args[this.messageDataIndex] = message;
-                }
-                if (this.throwableIndex >= 0) {
-                    args[this.throwableIndex] = throwable;
-                }
+            if (convert) {
+                request.setBody(Func.parseObject(oldBody, messageDataType));
             }
-            method.invoke(invokeBean, args); //invoke
+            result = invoker.invoke(message, throwable); //invoke
         } finally {
-            request.setBody(oldBody);
+            if (convert) {
+                // 异步方法执行完成后再恢复消息体
+                result = restoreAfter(result, () -> request.setBody(oldBody));
+            }
         }
+        return result;
+    }
+
+    /**
+     * 批量触发调用
+     *
+     * @param messages 消息
+     * @return 订阅方法返回值，异步方法为CompletionStage
+     * @throws Throwable 订阅方法抛出的原始异常
+     */
+    @SuppressWarnings("all")
+    public Object invokeBatch(List<? extends Message> messages) throws Throwable {
+        Object[] oldBodies = new Object[messages.size()];
+        boolean convert = false;
+        for (int i = 0; i < messages.size(); i++) {
+            Request request = (Request) messages.get(i);
+            Object oldBody = request.getBody();
+            if (!isTypedBody(oldBody)) {
+                oldBodies[i] = oldBody;
+                convert = true;
+                request.setBody(Func.parseObject(oldBody, messageDataType));
+            }
+        }
+        Object result = null;
+        try {
+            result = invoker.invoke(messages, null); //invoke
+        } finally {
+            if (convert) {
+                result = restoreAfter(result, () -> {
+                    for (int i = 0; i < messages.size(); i++) {
+                        if (null != oldBodies[i]) {
+                            ((Request) messages.get(i)).setBody(oldBodies[i]);
+                        }
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 恢复消息体，异步方法在返回的CompletionStage完成后恢复
+     *
+     * @param result  订阅方法返回值
+     * @param restore 恢复操作
+     * @return 返回值，异步方法为恢复后才完成的CompletionStage
+     */
+    private Object restoreAfter(Object result, Runnable restore) {
+        if (async && result instanceof CompletionStage) {
+            return ((CompletionStage<?>) result).whenComplete((r, e) -> restore.run());
+        }
+        restore.run();
+        return result;
+    }
+
+    /**
+     * 消息体是否已经是接收参数类型
+     *
+     * @param body 消息体
+     * @return true已是目标类型
+     */
+    private boolean isTypedBody(Object body) {
+        if (null == body) {
+            return true;
+        }
+        if (body instanceof String) {
+            return CharSequence.class.isAssignableFrom(messageDataClass);
+        }
+        return messageDataClass.isInstance(body);
     }
 
     /**
@@ -119,6 +231,7 @@ public class Trigger {
             return;
         }
         int modifiers = method.getModifiers();
+        this.deliverId = Func.getDeliverId(Func.primitiveClass(invokeBean), method.getName());
         try {
             Assert.isTrue(Modifier.isPublic(modifiers),
                     String.format("Method %s of %s must be public", method.getName(), method.getDeclaringClass().getName()));
@@ -126,23 +239,63 @@ public class Trigger {
             method = primitiveClass.getMethod(method.getName(), method.getParameterTypes());
             Type[] parameterTypes = method.getGenericParameterTypes();
             this.paramsCount = parameterTypes.length;
+            this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
             this.messageDataIndex = -1;
             this.throwableIndex = -1;
             for (int index = 0; index < parameterTypes.length; index++) {
                 String typeName = parameterTypes[index].getTypeName();
+                // 批量接收消息
+                Type batchType = batchMessageType(parameterTypes[index]);
+                if (null != batchType) {
+                    batch = true;
+                    messageDataIndex = index;
+                    messageDataType = batchType;
+                    messageDataClass = rawClass(messageDataType);
+                }
                 // 接收消息
-                if (typeName.contains(Message.class.getName())) {
+                else if (typeName.contains(Message.class.getName())) {
                     messageDataIndex = index;
                     messageDataType = ((ParameterizedType) parameterTypes[index]).getActualTypeArguments()[0];
+                    messageDataClass = rawClass(messageDataType);
                 }
                 // 接收异常
                 else if (typeName.contains(Throwable.class.getName())) {
                     throwableIndex = index;
                 }
             }
+            this.invoker = InvokerFactory.create(invokeBean, method, messageDataIndex, throwableIndex);
         } catch (Exception e) {
             log.error("Trigger.buildParams", e);
             System.exit(1);
         }
     }
+
+    /**
+     * 批量接收参数（List&lt;Message&lt;T&gt;&gt;）的消息体类型
+     *
+     * @return 消息体类型，非批量接收参数时为null
+     */
+    private static Type batchMessageType(Type type) {
+        if (!(type instanceof ParameterizedType) || !List.class.equals(((ParameterizedType) type).getRawType())) {
+            return null;
+        }
+        Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+        if (element instanceof ParameterizedType && Message.class.equals(((ParameterizedType) element).getRawType())) {
+            return ((ParameterizedType) element).getActualTypeArguments()[0];
+        }
+        return null;
+    }
+
+    /**
+     * 获取类型的原始类型
+     */
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return Object.class;
+    }
 }
@@ -0,0 +1,78 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import com.anthonyzero.eventbus.core.exception.EventBusException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * JDK Deflater压缩
+ *
+ */
+public class DeflateCompressor implements ICompressor {
+    public static final String NAME = "deflate";
+
+    @Override
+    public boolean active() {
+        return true;
+    }
+
+    @Override
+    public String className() {
+        return Deflater.class.getName();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte marker() {
+        return 'D';
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int originalLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] result = new byte[originalLength];
+            int count = 0;
+            while (count < originalLength && !inflater.finished()) {
+                int n = inflater.inflate(result, count, originalLength - count);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                count += n;
+            }
+            if (count != originalLength) {
+                throw new EventBusException("deflate data length mismatch");
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new EventBusException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
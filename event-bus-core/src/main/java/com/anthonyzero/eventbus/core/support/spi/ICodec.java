@@ -0,0 +1,92 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import com.anthonyzero.eventbus.core.metadata.Request;
+
+import java.lang.reflect.Type;
+import java.util.function.Function;
+
+/**
+ * 消息编解码接口（字节）。
+ * 与{@link IJson}一样通过SPI加载，用于消息在传输层的二进制编码，
+ * 每种实现拥有唯一的格式标识，写入消息帧头部，消费端据此选择对应的实现解码。
+ *
+ */
+public interface ICodec {
+
+    /**
+     * 检查当前实现类是否激活。
+     * 通过尝试加载实现类依赖的类名来判断其是否可用。
+     *
+     * @return 如果类可用，则返回true；否则返回false。
+     */
+    default boolean active() {
+        try {
+            Class.forName(className());
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 获取当前实现依赖的类名，用于激活检查
+     *
+     * @return 类名
+     */
+    String className();
+
+    /**
+     * 编解码名称，对应配置项 eventbus.codec
+     *
+     * @return 名称
+     */
+    String name();
+
+    /**
+     * 格式标识，写入消息帧头部，不同实现不可重复
+     *
+     * @return 格式标识
+     */
+    byte marker();
+
+    /**
+     * 将对象编码为字节
+     *
+     * @param value 待编码的对象
+     * @return 字节
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 将字节解码为消息请求对象，消息体直接解析为订阅器声明的类型；
+     * bodyTypeResolver返回null时不解析消息体。
+     *
+     * @param data             数据
+     * @param offset           数据起始位置
+     * @param length           数据长度
+     * @param bodyTypeResolver 消息体类型解析器
+     * @param <T>              消息体的泛型类型
+     * @return 消息请求对象
+     */
+    <T> Request<T> decodeRequest(byte[] data, int offset, int length, Function<Request<?>, Type> bodyTypeResolver);
+
+    /**
+     * 将字节解码为指定类型的对象（消息体单独存储时使用）
+     *
+     * @param data   数据
+     * @param offset 数据起始位置
+     * @param length 数据长度
+     * @param type   目标对象的类型
+     * @param <T>    目标对象的泛型类型
+     * @return 解析后的对象
+     */
+    <T> T decode(byte[] data, int offset, int length, Type type);
+
+    /**
+     * 预热指定类型的序列化器，订阅器注册时调用，默认不处理
+     *
+     * @param type 消息体类型
+     */
+    default void warmUp(Type type) {
+    }
+}
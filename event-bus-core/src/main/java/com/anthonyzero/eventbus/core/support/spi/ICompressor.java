@@ -0,0 +1,64 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+/**
+ * 数据压缩接口。
+ * 通过SPI加载，每种实现拥有唯一的算法标识，写入压缩数据头部，解压时据此选择对应的实现。
+ *
+ */
+public interface ICompressor {
+
+    /**
+     * 检查当前实现类是否激活。
+     * 通过尝试加载实现类依赖的类名来判断其是否可用。
+     *
+     * @return 如果类可用，则返回true；否则返回false。
+     */
+    default boolean active() {
+        try {
+            Class.forName(className());
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 获取当前实现依赖的类名，用于激活检查
+     *
+     * @return 类名
+     */
+    String className();
+
+    /**
+     * 算法名称
+     *
+     * @return 名称
+     */
+    String name();
+
+    /**
+     * 算法标识，写入压缩数据头部，不同实现不可重复
+     *
+     * @return 算法标识
+     */
+    byte marker();
+
+    /**
+     * 压缩
+     *
+     * @param data 原始数据
+     * @return 压缩后的数据
+     */
+    byte[] compress(byte[] data);
+
+    /**
+     * 解压
+     *
+     * @param data           压缩数据
+     * @param offset         数据起始位置
+     * @param length         数据长度
+     * @param originalLength 原始数据长度
+     * @return 原始数据
+     */
+    byte[] decompress(byte[] data, int offset, int length, int originalLength);
+}
@@ -0,0 +1,48 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 执行器提供者。
+ * 通过SPI加载，按名称（配置eventbus.executor）选择，用于创建消息分发及定时任务的执行器；
+ * 自定义实现在META-INF/services中注册即可。
+ *
+ */
+public interface IExecutorProvider {
+
+    /**
+     * 当前运行环境是否可用
+     *
+     * @return 如果可用，则返回true；否则返回false。
+     */
+    default boolean active() {
+        return true;
+    }
+
+    /**
+     * 名称
+     *
+     * @return 名称
+     */
+    String name();
+
+    /**
+     * 创建消息分发执行器，拉取到的消息交由其执行投递。
+     * 同时执行的任务数达到上限时，execute需阻塞等待，不可拒绝任务
+     *
+     * @param prefix           线程名前缀
+     * @param concurrency      订阅器并发数之和
+     * @param maxPoolSize      配置的最大线程数（eventbus.redis.poll-thread-pool-size），无需平台线程的实现可忽略
+     * @param keepAliveSeconds 空闲线程存活时长，单位：秒
+     * @return 执行器
+     */
+    ExecutorService createDispatchExecutor(String prefix, int concurrency, int maxPoolSize, long keepAliveSeconds);
+
+    /**
+     * 创建定时任务执行器，execute同样需阻塞等待，不可拒绝任务
+     *
+     * @param prefix 线程名前缀
+     * @return 执行器
+     */
+    ExecutorService createTaskExecutor(String prefix);
+}
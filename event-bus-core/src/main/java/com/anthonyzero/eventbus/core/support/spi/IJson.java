@@ -1,9 +1,12 @@
 package com.anthonyzero.eventbus.core.support.spi;
 
 
+import com.anthonyzero.eventbus.core.metadata.Request;
 import com.anthonyzero.eventbus.core.utils.Func;
 
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
 
 /**
  * JSON处理接口。
@@ -70,6 +73,66 @@ public interface IJson {
      */
     <T> T parseObject(String text, Type type);
 
+    /**
+     * 将JSON字符串解析为消息请求对象，消息体直接解析为订阅器声明的类型。
+     * 先解析消息头（投递ID、消息类型等），再由bodyTypeResolver根据消息头确定消息体类型；
+     * bodyTypeResolver返回null时不解析消息体。
+     * 默认实现为两次解析，实现类可覆盖为单次解析。
+     *
+     * @param text             JSON字符串
+     * @param bodyTypeResolver 消息体类型解析器
+     * @param <T>              消息体的泛型类型
+     * @return 消息请求对象
+     */
+    @SuppressWarnings("all")
+    default <T> Request<T> parseRequest(String text, Function<Request<?>, Type> bodyTypeResolver) {
+        Request<T> request = parseObject(text, Request.class);
+        Type bodyType = bodyTypeResolver.apply(request);
+        if (null == bodyType) {
+            request.setBody(null);
+        } else if (null != request.getBody()) {
+            request.setBody(Func.parseObject(request.getBody(), bodyType));
+        }
+        return request;
+    }
+
+    /**
+     * 将JSON字节解析为消息请求对象，同{@link #parseRequest(String, Function)}。
+     * 默认实现转换为字符串后解析，实现类可覆盖为直接解析字节。
+     *
+     * @param data             JSON字节（UTF-8）
+     * @param offset           数据起始位置
+     * @param length           数据长度
+     * @param bodyTypeResolver 消息体类型解析器
+     * @param <T>              消息体的泛型类型
+     * @return 消息请求对象
+     */
+    default <T> Request<T> parseRequest(byte[] data, int offset, int length, Function<Request<?>, Type> bodyTypeResolver) {
+        return parseRequest(new String(data, offset, length, StandardCharsets.UTF_8), bodyTypeResolver);
+    }
+
+    /**
+     * 将消息体JSON字符串解析为指定类型的对象，兼容消息体被序列化为JSON字符串的情况。
+     * 默认实现复用消息请求的解析逻辑，实现类可覆盖。
+     *
+     * @param text 消息体JSON字符串
+     * @param type 目标对象的类型
+     * @param <T>  目标对象的泛型类型
+     * @return 解析后的对象
+     */
+    default <T> T parseBody(String text, Type type) {
+        Request<T> request = parseRequest("{\"body\":" + text + "}", r -> type);
+        return request.getBody();
+    }
+
+    /**
+     * 预热指定类型的序列化器，订阅器注册时调用，默认不处理
+     *
+     * @param type 消息体类型
+     */
+    default void warmUp(Type type) {
+    }
+
     /**
      * 获取当前实现的处理顺序。
      * 用于在多个实现存在时确定处理的优先级,order越小越优先。
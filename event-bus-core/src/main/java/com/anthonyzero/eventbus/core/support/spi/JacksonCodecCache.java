@@ -0,0 +1,137 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * jackson编解码缓存，按类型缓存预先解析好的ObjectReader/ObjectWriter。
+ * 订阅器注册时按消息体类型预热，避免服务启动后首批消息承担序列化器查找的开销；
+ * 记录命中及未命中次数，可通过{@link #getCaches()}获取各格式的缓存指标。
+ *
+ */
+public final class JacksonCodecCache {
+
+    /**
+     * 所有编解码缓存，key：格式名称
+     */
+    private static final Map<String, JacksonCodecCache> CACHES = new ConcurrentHashMap<>(4);
+
+    private final String name;
+    private final ObjectMapper mapper;
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final LongAdder readerHits = new LongAdder();
+    private final LongAdder readerMisses = new LongAdder();
+    private final LongAdder writerHits = new LongAdder();
+    private final LongAdder writerMisses = new LongAdder();
+
+    private JacksonCodecCache(String name, ObjectMapper mapper) {
+        this.name = name;
+        this.mapper = mapper;
+    }
+
+    /**
+     * 创建并登记编解码缓存
+     *
+     * @param name   格式名称
+     * @param mapper mapper
+     * @return 缓存
+     */
+    static JacksonCodecCache create(String name, ObjectMapper mapper) {
+        return CACHES.computeIfAbsent(name, key -> new JacksonCodecCache(key, mapper));
+    }
+
+    /**
+     * 获取所有编解码缓存
+     *
+     * @return 缓存
+     */
+    public static Collection<JacksonCodecCache> getCaches() {
+        return Collections.unmodifiableCollection(CACHES.values());
+    }
+
+    /**
+     * 获取类型对应的ObjectReader
+     *
+     * @param type 类型
+     * @return reader
+     */
+    public ObjectReader reader(Type type) {
+        ObjectReader reader = readers.get(type);
+        if (null != reader) {
+            readerHits.increment();
+            return reader;
+        }
+        readerMisses.increment();
+        return readers.computeIfAbsent(type, key -> mapper.readerFor(constructType(key)));
+    }
+
+    /**
+     * 获取类型对应的ObjectWriter
+     *
+     * @param type 类型
+     * @return writer
+     */
+    public ObjectWriter writer(Type type) {
+        ObjectWriter writer = writers.get(type);
+        if (null != writer) {
+            writerHits.increment();
+            return writer;
+        }
+        writerMisses.increment();
+        return writers.computeIfAbsent(type, key -> mapper.writerFor(constructType(key)));
+    }
+
+    /**
+     * 预热，提前解析类型对应的序列化器及反序列化器（不计入指标）
+     *
+     * @param type 类型
+     */
+    public void warmUp(Type type) {
+        readers.computeIfAbsent(type, key -> mapper.readerFor(constructType(key)));
+        writers.computeIfAbsent(type, key -> mapper.writerFor(constructType(key)));
+    }
+
+    public JavaType constructType(Type type) {
+        return mapper.constructType(type);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return readers.size() + writers.size();
+    }
+
+    public long getReaderHits() {
+        return readerHits.sum();
+    }
+
+    public long getReaderMisses() {
+        return readerMisses.sum();
+    }
+
+    public long getWriterHits() {
+        return writerHits.sum();
+    }
+
+    public long getWriterMisses() {
+        return writerMisses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JacksonCodecCache(name=%s, size=%d, readerHits=%d, readerMisses=%d, writerHits=%d, writerMisses=%d)",
+                name, size(), getReaderHits(), getReaderMisses(), getWriterHits(), getWriterMisses());
+    }
+}
@@ -1,24 +1,13 @@
 package com.anthonyzero.eventbus.core.support.spi;
 
 import com.anthonyzero.eventbus.core.exception.EventBusException;
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.anthonyzero.eventbus.core.metadata.Request;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
 
 /**
  * jackson
@@ -26,8 +15,8 @@ import java.time.format.DateTimeFormatter;
  */
 public class JacksonProvider implements IJson {
 
-    public static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
-    public static final String DATE_PATTERN = "yyyy-MM-dd";
+    public static final String DATE_TIME_PATTERN = JacksonSupport.DATE_TIME_PATTERN;
+    public static final String DATE_PATTERN = JacksonSupport.DATE_PATTERN;
 
     @Override
     public String className() {
@@ -37,7 +26,7 @@ public class JacksonProvider implements IJson {
     @Override
     public String toJsonString(Object value) {
         try {
-            return JacksonUtil.MAPPER.writeValueAsString(value);
+            return JacksonSupport.CACHE.writer(value.getClass()).writeValueAsString(value);
         } catch (JsonProcessingException e) {
             throw new EventBusException(e);
         }
@@ -46,34 +35,50 @@ public class JacksonProvider implements IJson {
     @Override
     public <T> T parseObject(String text, Type type) {
         try {
-            return JacksonUtil.MAPPER.readValue(text, JacksonUtil.MAPPER.constructType(type));
+            return JacksonSupport.CACHE.reader(type).readValue(text);
         } catch (IOException e) {
             throw new EventBusException(e);
         }
     }
 
+    /**
+     * 单次解析：消息头字段和消息体分别缓存为token流（不产生中间Map和JSON字符串），
+     * 消息头解析完成后确定消息体类型，再由消息体token流直接绑定为目标类型
+     */
     @Override
-    public int getOrder() {
-        return 1;
+    public <T> Request<T> parseRequest(String text, Function<Request<?>, Type> bodyTypeResolver) {
+        try (JsonParser parser = JacksonSupport.MAPPER.getFactory().createParser(text)) {
+            return JacksonSupport.readRequest(parser, bodyTypeResolver);
+        } catch (IOException e) {
+            throw new EventBusException(e);
+        }
     }
 
-    private static class JacksonUtil {
-        private static final ObjectMapper MAPPER = new ObjectMapper();
+    @Override
+    public <T> Request<T> parseRequest(byte[] data, int offset, int length, Function<Request<?>, Type> bodyTypeResolver) {
+        try (JsonParser parser = JacksonSupport.MAPPER.getFactory().createParser(data, offset, length)) {
+            return JacksonSupport.readRequest(parser, bodyTypeResolver);
+        } catch (IOException e) {
+            throw new EventBusException(e);
+        }
+    }
 
-        static {
-            MAPPER.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-            MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            MAPPER.configure(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL, true);
-            MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-            MAPPER.disable(SerializationFeature.INDENT_OUTPUT);
+    @Override
+    public <T> T parseBody(String text, Type type) {
+        try (JsonParser parser = JacksonSupport.MAPPER.getFactory().createParser(text)) {
+            return JacksonSupport.readBody(parser, type);
+        } catch (IOException e) {
+            throw new EventBusException(e);
+        }
+    }
 
-            JavaTimeModule javaTimeModule = new JavaTimeModule();
-            javaTimeModule.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
-            javaTimeModule.addSerializer(LocalDate.class, new LocalDateSerializer(DateTimeFormatter.ofPattern(DATE_PATTERN)));
+    @Override
+    public void warmUp(Type type) {
+        JacksonSupport.warmUp(type);
+    }
 
-            javaTimeModule.addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
-            javaTimeModule.addDeserializer(LocalDate.class, new LocalDateDeserializer(DateTimeFormatter.ofPattern(DATE_PATTERN)));
-            MAPPER.registerModule(javaTimeModule);
-        }
+    @Override
+    public int getOrder() {
+        return 1;
     }
 }
@@ -0,0 +1,178 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import com.anthonyzero.eventbus.core.exception.EventBusException;
+import com.anthonyzero.eventbus.core.metadata.Request;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+
+/**
+ * jackson公共处理，JSON及二进制格式（smile）共用同一套映射配置和消息解析逻辑
+ *
+ */
+final class JacksonSupport {
+
+    static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    static final String DATE_PATTERN = "yyyy-MM-dd";
+    private static final String BODY = "body";
+    private static final String DELIVER_ID = "deliverId";
+    private static final String TYPE = "type";
+    /**
+     * 路由字段（投递ID、消息类型）均已读取
+     */
+    private static final int ROUTING_FIELDS = 3;
+
+    /**
+     * 对象绑定统一使用JSON mapper，token流与具体数据格式无关
+     */
+    static final ObjectMapper MAPPER = configure(new ObjectMapper());
+
+    /**
+     * JSON编解码缓存
+     */
+    static final JacksonCodecCache CACHE = JacksonCodecCache.create("json", MAPPER);
+
+    private JacksonSupport() {
+    }
+
+    /**
+     * 统一的ObjectMapper配置
+     *
+     * @param mapper mapper
+     * @return mapper
+     */
+    static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL, true);
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper.disable(SerializationFeature.INDENT_OUTPUT);
+
+        JavaTimeModule javaTimeModule = new JavaTimeModule();
+        javaTimeModule.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
+        javaTimeModule.addSerializer(LocalDate.class, new LocalDateSerializer(DateTimeFormatter.ofPattern(DATE_PATTERN)));
+
+        javaTimeModule.addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer(DateTimeFormatter.ofPattern(DATE_TIME_PATTERN)));
+        javaTimeModule.addDeserializer(LocalDate.class, new LocalDateDeserializer(DateTimeFormatter.ofPattern(DATE_PATTERN)));
+        mapper.registerModule(javaTimeModule);
+        return mapper;
+    }
+
+    /**
+     * 预热消息体类型及消息请求对象的序列化器
+     *
+     * @param type 消息体类型
+     */
+    static void warmUp(Type type) {
+        CACHE.warmUp(Request.class);
+        CACHE.warmUp(type);
+    }
+
+    /**
+     * 单次流式解析：消息头字段缓存为token流（不产生中间Map和JSON字符串）。
+     * 读到消息体时若路由字段（投递ID、消息类型）已读取，则先确定消息体类型：
+     * 无订阅者时直接结束解析，不读取消息体；否则在当前流上直接绑定为目标类型。
+     * 消息体位于路由字段之前时，消息体缓存为token流，消息头解析完成后再绑定
+     *
+     * @param parser           消息解析器（JSON或二进制格式）
+     * @param bodyTypeResolver 消息体类型解析器
+     * @return 消息请求对象
+     */
+    @SuppressWarnings("all")
+    static <T> Request<T> readRequest(JsonParser parser, Function<Request<?>, Type> bodyTypeResolver) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new EventBusException("request must be object");
+        }
+        TokenBuffer header = new TokenBuffer(parser);
+        header.writeStartObject();
+        TokenBuffer body = null;
+        Request<T> request = null;
+        int routing = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if (BODY.equals(fieldName)) {
+                if (routing != ROUTING_FIELDS) {
+                    body = new TokenBuffer(parser);
+                    body.copyCurrentStructure(parser);
+                    continue;
+                }
+                header.writeEndObject();
+                request = CACHE.reader(Request.class).readValue(header.asParser());
+                Type bodyType = bodyTypeResolver.apply(request);
+                if (null == bodyType) {
+                    // 无订阅者，消息体及后续字段不再解析
+                    return request;
+                }
+                request.setBody(readCurrentBody(parser, bodyType));
+                header = new TokenBuffer(parser);
+                header.writeStartObject();
+                continue;
+            }
+            if (DELIVER_ID.equals(fieldName)) {
+                routing |= 1;
+            } else if (TYPE.equals(fieldName)) {
+                routing |= 2;
+            }
+            header.writeFieldName(fieldName);
+            header.copyCurrentStructure(parser);
+        }
+        header.writeEndObject();
+        if (null != request) {
+            // 消息体之后仍有消息头字段（非默认的字段顺序）
+            return CACHE.reader(Request.class).withValueToUpdate(request).readValue(header.asParser());
+        }
+        request = CACHE.reader(Request.class).readValue(header.asParser());
+        Type bodyType = null == body ? null : bodyTypeResolver.apply(request);
+        if (null != bodyType) {
+            request.setBody(readBody(body.asParser(), bodyType));
+        }
+        return request;
+    }
+
+    /**
+     * 解析消息体，兼容消息体被序列化为JSON字符串的情况（拦截器转换后的重试消息）
+     */
+    static <T> T readBody(JsonParser parser, Type bodyType) throws IOException {
+        parser.nextToken();
+        return readCurrentBody(parser, bodyType);
+    }
+
+    /**
+     * 从解析器当前token开始解析消息体
+     */
+    @SuppressWarnings("all")
+    private static <T> T readCurrentBody(JsonParser parser, Type bodyType) throws IOException {
+        ObjectReader reader = CACHE.reader(bodyType);
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            String text = parser.getText();
+            Class<?> rawClass = bodyType instanceof Class ? (Class<?>) bodyType : CACHE.constructType(bodyType).getRawClass();
+            if (CharSequence.class.isAssignableFrom(rawClass)
+                    || (Object.class == rawClass && !text.matches(IJson.PATTERN_JSON))) {
+                return (T) text;
+            }
+            // 字符串形式的消息体始终为JSON文本
+            return reader.readValue(text);
+        }
+        return reader.readValue(parser);
+    }
+}
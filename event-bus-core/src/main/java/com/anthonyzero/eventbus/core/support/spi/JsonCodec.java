@@ -0,0 +1,52 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.utils.Func;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * JSON编解码，委托给当前生效的{@link IJson}实现。
+ * JSON消息不写入帧头，与历史版本的消息格式保持一致。
+ *
+ */
+public class JsonCodec implements ICodec {
+    public static final String NAME = "json";
+
+    @Override
+    public boolean active() {
+        return true;
+    }
+
+    @Override
+    public String className() {
+        return IJson.class.getName();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte marker() {
+        return 'J';
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return Func.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <T> Request<T> decodeRequest(byte[] data, int offset, int length, Function<Request<?>, Type> bodyTypeResolver) {
+        return Func.convertByBytes(data, offset, length, bodyTypeResolver);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, int offset, int length, Type type) {
+        return Func.parseBody(new String(data, offset, length, StandardCharsets.UTF_8), type);
+    }
+}
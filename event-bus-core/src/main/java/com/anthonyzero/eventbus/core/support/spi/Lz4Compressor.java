@@ -0,0 +1,48 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * lz4压缩，需引入 lz4-java 依赖
+ *
+ */
+public class Lz4Compressor implements ICompressor {
+    public static final String NAME = "lz4";
+
+    @Override
+    public String className() {
+        return "net.jpountz.lz4.LZ4Factory";
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte marker() {
+        return 'L';
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+        return Lz4Util.COMPRESSOR.compress(data);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int originalLength) {
+        byte[] result = new byte[originalLength];
+        Lz4Util.DECOMPRESSOR.decompress(data, offset, result, 0, originalLength);
+        return result;
+    }
+
+    /**
+     * 延迟加载，未引入lz4依赖时不会触发类加载
+     */
+    private static class Lz4Util {
+        private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+        private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+    }
+}
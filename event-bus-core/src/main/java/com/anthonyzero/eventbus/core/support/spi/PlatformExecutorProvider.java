@@ -0,0 +1,35 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import com.anthonyzero.eventbus.core.utils.NamedThreadFactory;
+import com.anthonyzero.eventbus.core.utils.WaitThreadPoolExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台线程池（默认），分发线程数不超过poll-thread-pool-size
+ *
+ */
+public class PlatformExecutorProvider implements IExecutorProvider {
+    public static final String NAME = "platform";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ExecutorService createDispatchExecutor(String prefix, int concurrency, int maxPoolSize, long keepAliveSeconds) {
+        int poolSize = Math.min(concurrency, maxPoolSize); //min最小值
+        return new WaitThreadPoolExecutor(1, poolSize, keepAliveSeconds,
+                TimeUnit.SECONDS, new LinkedBlockingDeque<>(concurrency), new NamedThreadFactory(prefix));
+    }
+
+    @Override
+    public ExecutorService createTaskExecutor(String prefix) {
+        return new WaitThreadPoolExecutor(1,
+                10, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(10), new NamedThreadFactory(prefix));
+    }
+}
@@ -0,0 +1,78 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import com.anthonyzero.eventbus.core.exception.EventBusException;
+import com.anthonyzero.eventbus.core.metadata.Request;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.function.Function;
+
+/**
+ * jackson smile二进制编解码，需引入 jackson-dataformat-smile 依赖
+ *
+ */
+public class SmileProvider implements ICodec {
+    public static final String NAME = "smile";
+
+    @Override
+    public String className() {
+        return "com.fasterxml.jackson.dataformat.smile.SmileFactory";
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte marker() {
+        return 'S';
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        try {
+            return SmileUtil.CACHE.writer(value.getClass()).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new EventBusException(e);
+        }
+    }
+
+    @Override
+    public <T> Request<T> decodeRequest(byte[] data, int offset, int length, Function<Request<?>, Type> bodyTypeResolver) {
+        try (JsonParser parser = SmileUtil.MAPPER.getFactory().createParser(data, offset, length)) {
+            return JacksonSupport.readRequest(parser, bodyTypeResolver);
+        } catch (IOException e) {
+            throw new EventBusException(e);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] data, int offset, int length, Type type) {
+        try (JsonParser parser = SmileUtil.MAPPER.getFactory().createParser(data, offset, length)) {
+            return JacksonSupport.readBody(parser, type);
+        } catch (IOException e) {
+            throw new EventBusException(e);
+        }
+    }
+
+    @Override
+    public void warmUp(Type type) {
+        // 消息体由JSON mapper从token流绑定，写入使用smile mapper
+        JacksonSupport.warmUp(type);
+        SmileUtil.CACHE.warmUp(Request.class);
+        SmileUtil.CACHE.warmUp(type);
+    }
+
+    /**
+     * 延迟加载，未引入smile依赖时不会触发类加载
+     */
+    private static class SmileUtil {
+        private static final ObjectMapper MAPPER = JacksonSupport.configure(new ObjectMapper(new SmileFactory()));
+        private static final JacksonCodecCache CACHE = JacksonCodecCache.create(NAME, MAPPER);
+    }
+}
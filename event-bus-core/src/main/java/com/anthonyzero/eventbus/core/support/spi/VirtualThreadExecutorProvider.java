@@ -0,0 +1,142 @@
+package com.anthonyzero.eventbus.core.support.spi;
+
+import com.anthonyzero.eventbus.core.exception.EventBusException;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程（JDK21及以上），每次投递在新的虚拟线程中执行，阻塞型订阅方法不再占用平台线程；
+ * 同时执行的投递数以订阅器并发数之和为上限，不受poll-thread-pool-size限制。
+ * 项目按Java 8编译，虚拟线程API通过反射调用，低版本JDK中不可用
+ *
+ */
+public class VirtualThreadExecutorProvider implements IExecutorProvider {
+    public static final String NAME = "virtual";
+
+    /**
+     * 定时任务同时执行数上限
+     */
+    private static final int TASK_CONCURRENCY = 10;
+
+    @Override
+    public boolean active() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ExecutorService createDispatchExecutor(String prefix, int concurrency, int maxPoolSize, long keepAliveSeconds) {
+        return new VirtualThreadExecutor(factory(prefix), concurrency);
+    }
+
+    @Override
+    public ExecutorService createTaskExecutor(String prefix) {
+        return new VirtualThreadExecutor(factory(prefix), TASK_CONCURRENCY);
+    }
+
+    /**
+     * Thread.ofVirtual().name(prefix, 1).factory()
+     */
+    private static ThreadFactory factory(String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new EventBusException("virtual thread unavailable, JDK21 or later is required", e);
+        }
+    }
+
+    /**
+     * 每个任务一个虚拟线程，同时执行的任务数达到上限时execute阻塞等待
+     */
+    static class VirtualThreadExecutor extends AbstractExecutorService {
+        private final ThreadFactory factory;
+        private final int concurrency;
+        private final Semaphore permits;
+        private volatile boolean shutdown;
+
+        VirtualThreadExecutor(ThreadFactory factory, int concurrency) {
+            this.factory = factory;
+            this.concurrency = Math.max(1, concurrency);
+            this.permits = new Semaphore(this.concurrency);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException("executor shutdown");
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("interrupted while waiting for permit", e);
+            }
+            try {
+                factory.newThread(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                }).start();
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            // 许可全部归还即没有执行中的任务
+            return shutdown && permits.availablePermits() == concurrency;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            return true;
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.anthonyzero.eventbus.core.support.task;
 
 import com.anthonyzero.eventbus.core.part.TaskRegistry;
-import com.anthonyzero.eventbus.core.utils.WaitThreadPoolExecutor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
 
 /**
  * 任务类，抽象类，继承自TimerTask，用于定义和管理任务。
@@ -39,7 +39,7 @@ public abstract class Task extends TimerTask {
     /**
      * 任务执行的线程池。
      */
-    private WaitThreadPoolExecutor poolExecutor;
+    private ExecutorService poolExecutor;
 
     /**
      * 标志任务是否已初始化。
@@ -0,0 +1,112 @@
+package com.anthonyzero.eventbus.core.utils;
+
+import com.anthonyzero.eventbus.core.support.spi.DeflateCompressor;
+import com.anthonyzero.eventbus.core.support.spi.ICompressor;
+import lombok.experimental.UtilityClass;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * 压缩工具
+ * 压缩数据格式：[魔数][算法标识][原始数据长度(4字节)][压缩数据]，
+ * 魔数与编解码帧头及JSON文本均不冲突，未压缩数据原样读取，支持压缩与未压缩数据混合存储
+ *
+ */
+@UtilityClass
+public class CompressUtil {
+
+    /**
+     * 压缩数据头部魔数
+     */
+    private static final byte COMPRESS_MAGIC = 0x01;
+    private static final int HEADER_LENGTH = 6;
+
+    /**
+     * 压缩实现，key：算法标识
+     */
+    private static final Map<Byte, ICompressor> COMPRESSOR_MARKERS = new HashMap<>(4);
+    /**
+     * 压缩实现，key：算法名称
+     */
+    private static final Map<String, ICompressor> COMPRESSOR_NAMES = new HashMap<>(4);
+
+    static {
+        // spi load compressor
+        for (ICompressor compressor : ServiceLoader.load(ICompressor.class)) {
+            if (!compressor.active()) {
+                continue;
+            }
+            ICompressor exist = COMPRESSOR_MARKERS.putIfAbsent(compressor.marker(), compressor);
+            Assert.isTrue(null == exist, "compressor marker duplicate: " + compressor.name());
+            COMPRESSOR_NAMES.put(compressor.name(), compressor);
+        }
+    }
+
+    /**
+     * 根据名称获取压缩实现
+     *
+     * @param name 名称
+     * @return 压缩实现
+     */
+    public ICompressor getCompressor(String name) {
+        ICompressor compressor = COMPRESSOR_NAMES.get(Func.isEmpty(name) ? DeflateCompressor.NAME : name);
+        Assert.notNull(compressor, "compressor [" + name + "] not found or inactive!");
+        return compressor;
+    }
+
+    /**
+     * 压缩，数据长度未超过阈值、已压缩或压缩后未变小时返回原数据
+     *
+     * @param data       数据
+     * @param compressor 压缩实现
+     * @param threshold  压缩阈值，单位：字节
+     * @return 数据
+     */
+    public byte[] compress(byte[] data, ICompressor compressor, int threshold) {
+        if (null == data || data.length <= threshold || isCompressed(data)) {
+            return data;
+        }
+        byte[] compressed = compressor.compress(data);
+        if (compressed.length + HEADER_LENGTH >= data.length) {
+            return data;
+        }
+        byte[] result = new byte[compressed.length + HEADER_LENGTH];
+        result[0] = COMPRESS_MAGIC;
+        result[1] = compressor.marker();
+        int length = data.length;
+        result[2] = (byte) (length >>> 24);
+        result[3] = (byte) (length >>> 16);
+        result[4] = (byte) (length >>> 8);
+        result[5] = (byte) length;
+        System.arraycopy(compressed, 0, result, HEADER_LENGTH, compressed.length);
+        return result;
+    }
+
+    /**
+     * 解压，未压缩的数据原样返回
+     *
+     * @param data 数据
+     * @return 原始数据
+     */
+    public byte[] decompress(byte[] data) {
+        if (!isCompressed(data)) {
+            return data;
+        }
+        ICompressor compressor = COMPRESSOR_MARKERS.get(data[1]);
+        Assert.notNull(compressor, "compressor marker [" + (char) data[1] + "] not found or inactive!");
+        int length = ((data[2] & 0xFF) << 24) | ((data[3] & 0xFF) << 16) | ((data[4] & 0xFF) << 8) | (data[5] & 0xFF);
+        return compressor.decompress(data, HEADER_LENGTH, data.length - HEADER_LENGTH, length);
+    }
+
+    /**
+     * 是否为压缩数据
+     *
+     * @param data 数据
+     * @return true：压缩数据
+     */
+    public boolean isCompressed(byte[] data) {
+        return null != data && data.length > HEADER_LENGTH && data[0] == COMPRESS_MAGIC;
+    }
+}
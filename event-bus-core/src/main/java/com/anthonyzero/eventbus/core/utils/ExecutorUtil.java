@@ -0,0 +1,43 @@
+package com.anthonyzero.eventbus.core.utils;
+
+import com.anthonyzero.eventbus.core.support.spi.IExecutorProvider;
+import com.anthonyzero.eventbus.core.support.spi.PlatformExecutorProvider;
+import lombok.experimental.UtilityClass;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * 执行器工具
+ *
+ */
+@UtilityClass
+public class ExecutorUtil {
+
+    /**
+     * 执行器提供者，key：名称
+     */
+    private static final Map<String, IExecutorProvider> PROVIDERS = new HashMap<>(4);
+
+    static {
+        // spi load executor provider
+        for (IExecutorProvider provider : ServiceLoader.load(IExecutorProvider.class)) {
+            if (provider.active()) {
+                PROVIDERS.put(provider.name(), provider);
+            }
+        }
+    }
+
+    /**
+     * 根据名称获取执行器提供者
+     *
+     * @param name 名称，为空时为平台线程池
+     * @return 执行器提供者
+     */
+    public IExecutorProvider getProvider(String name) {
+        IExecutorProvider provider = PROVIDERS.get(Func.isEmpty(name) ? PlatformExecutorProvider.NAME : name);
+        Assert.notNull(provider, "executor [" + name + "] not found or inactive!");
+        return provider;
+    }
+}
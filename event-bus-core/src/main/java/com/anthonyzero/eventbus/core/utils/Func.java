@@ -1,7 +1,9 @@
 package com.anthonyzero.eventbus.core.utils;
 
 import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.support.spi.ICodec;
 import com.anthonyzero.eventbus.core.support.spi.IJson;
+import com.anthonyzero.eventbus.core.support.spi.JsonCodec;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 
@@ -11,6 +13,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * tool utils
@@ -26,6 +29,21 @@ public final class Func {
 
     private static final IJson JSON;
 
+    /**
+     * 消息帧头部魔数，JSON文本不会以该字节开头，以此区分带格式标识的二进制消息与历史JSON消息
+     */
+    private static final byte FRAME_MAGIC = 0x00;
+    private static final int FRAME_HEADER_LENGTH = 2;
+
+    /**
+     * 编解码器，key：格式标识
+     */
+    private static final Map<Byte, ICodec> CODEC_MARKERS = new HashMap<>(4);
+    /**
+     * 编解码器，key：名称
+     */
+    private static final Map<String, ICodec> CODEC_NAMES = new HashMap<>(4);
+
     static {
         // cglib
         PROXY_CLASS_NAMES.add("CGLIB$$");
@@ -49,6 +67,118 @@ public final class Func {
         }
         JSON = js;
         Assert.notNull(JSON, "json serialization tool is required!");
+
+        // spi load codec
+        for (ICodec codec : ServiceLoader.load(ICodec.class)) {
+            if (!codec.active()) {
+                continue;
+            }
+            ICodec exist = CODEC_MARKERS.putIfAbsent(codec.marker(), codec);
+            Assert.isTrue(null == exist, "codec marker duplicate: " + codec.name());
+            CODEC_NAMES.put(codec.name(), codec);
+        }
+    }
+
+    /**
+     * 预热消息体类型的序列化器
+     *
+     * @param type 消息体类型
+     */
+    public void warmUp(Type type) {
+        JSON.warmUp(type);
+        CODEC_NAMES.values().forEach(codec -> codec.warmUp(type));
+    }
+
+    /**
+     * 根据名称获取编解码器
+     *
+     * @param name 名称
+     * @return 编解码器
+     */
+    public ICodec getCodec(String name) {
+        ICodec codec = CODEC_NAMES.get(isEmpty(name) ? JsonCodec.NAME : name);
+        Assert.notNull(codec, "codec [" + name + "] not found or inactive!");
+        return codec;
+    }
+
+    /**
+     * 消息编码，非JSON格式写入帧头：[魔数][格式标识][数据]；
+     * JSON格式保持原始文本，兼容历史版本消费者
+     *
+     * @param request 消息
+     * @param codec   编解码器
+     * @return bytes
+     */
+    public byte[] encodeRequest(Request<?> request, ICodec codec) {
+        return frame(codec.encode(request), codec);
+    }
+
+    /**
+     * 消息体编码，帧格式同{@link #encodeRequest(Request, ICodec)}
+     *
+     * @param body  消息体
+     * @param codec 编解码器
+     * @return bytes
+     */
+    public byte[] encodeBody(Object body, ICodec codec) {
+        return frame(codec.encode(body), codec);
+    }
+
+    /**
+     * 写入帧头
+     */
+    private byte[] frame(byte[] data, ICodec codec) {
+        if (JsonCodec.NAME.equals(codec.name())) {
+            return data;
+        }
+        byte[] frame = new byte[data.length + FRAME_HEADER_LENGTH];
+        frame[0] = FRAME_MAGIC;
+        frame[1] = codec.marker();
+        System.arraycopy(data, 0, frame, FRAME_HEADER_LENGTH, data.length);
+        return frame;
+    }
+
+    /**
+     * 消息解码，根据帧头格式标识选择编解码器，无帧头时按JSON解码
+     *
+     * @param requestBytes     bytes
+     * @param bodyTypeResolver 根据消息头获取消息体类型，返回null时不解析消息体
+     * @return bean
+     */
+    public <T> Request<T> decodeRequest(byte[] requestBytes, Function<Request<?>, Type> bodyTypeResolver) {
+        if (requestBytes.length < FRAME_HEADER_LENGTH || requestBytes[0] != FRAME_MAGIC) {
+            return convertByBytes(requestBytes, bodyTypeResolver);
+        }
+        ICodec codec = CODEC_MARKERS.get(requestBytes[1]);
+        Assert.notNull(codec, "codec marker [" + (char) requestBytes[1] + "] not found or inactive!");
+        return codec.decodeRequest(requestBytes, FRAME_HEADER_LENGTH, requestBytes.length - FRAME_HEADER_LENGTH, bodyTypeResolver);
+    }
+
+    /**
+     * 消息体解码，根据帧头格式标识选择编解码器，无帧头时按JSON解码
+     *
+     * @param bodyBytes bytes
+     * @param type      消息体类型
+     * @return 消息体
+     */
+    public <T> T decodeBody(byte[] bodyBytes, Type type) {
+        if (bodyBytes.length < FRAME_HEADER_LENGTH || bodyBytes[0] != FRAME_MAGIC) {
+            return parseBody(new String(bodyBytes, StandardCharsets.UTF_8), type);
+        }
+        ICodec codec = CODEC_MARKERS.get(bodyBytes[1]);
+        Assert.notNull(codec, "codec marker [" + (char) bodyBytes[1] + "] not found or inactive!");
+        return codec.decode(bodyBytes, FRAME_HEADER_LENGTH, bodyBytes.length - FRAME_HEADER_LENGTH, type);
+    }
+
+    /**
+     * 消息体JSON字符串解析为指定类型，兼容消息体被序列化为JSON字符串的情况
+     *
+     * @param text 消息体JSON字符串
+     * @param type 消息体类型
+     * @return 消息体
+     */
+    public <T> T parseBody(String text, Type type) {
+        return JSON.parseBody(text, type);
     }
 
     /**
@@ -73,6 +203,41 @@ public final class Func {
         return convertByJson(new String(requestBytes, StandardCharsets.UTF_8));
     }
 
+    /**
+     * jsonStr to request bean，消息体直接解析为目标类型
+     *
+     * @param js               js
+     * @param bodyTypeResolver 根据消息头获取消息体类型，返回null时不解析消息体
+     * @return bean
+     */
+    public <T> Request<T> convertByJson(String js, Function<Request<?>, Type> bodyTypeResolver) {
+        return JSON.parseRequest(js, bodyTypeResolver);
+    }
+
+    /**
+     * bytes to request bean，消息体直接解析为目标类型
+     *
+     * @param requestBytes     bytes
+     * @param bodyTypeResolver 根据消息头获取消息体类型，返回null时不解析消息体
+     * @return bean
+     */
+    public <T> Request<T> convertByBytes(byte[] requestBytes, Function<Request<?>, Type> bodyTypeResolver) {
+        return convertByBytes(requestBytes, 0, requestBytes.length, bodyTypeResolver);
+    }
+
+    /**
+     * bytes to request bean，消息体直接解析为目标类型
+     *
+     * @param requestBytes     bytes
+     * @param offset           数据起始位置
+     * @param length           数据长度
+     * @param bodyTypeResolver 根据消息头获取消息体类型，返回null时不解析消息体
+     * @return bean
+     */
+    public <T> Request<T> convertByBytes(byte[] requestBytes, int offset, int length, Function<Request<?>, Type> bodyTypeResolver) {
+        return JSON.parseRequest(requestBytes, offset, length, bodyTypeResolver);
+    }
+
     /**
      * @param body 数据对象
      * @param type 数据实体class
@@ -0,0 +1,435 @@
+package com.anthonyzero.eventbus.core.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 轮询间隔表达式，注册订阅器时编译为表达式树，投递时以基本类型绑定变量直接求值，不再解析字符串。
+ * <p>
+ * 支持：
+ * 1. 数字、括号及 + - * / % 运算，一元负号；
+ * 2. 变量：$count（当前轮询次数）、$intervalTime（上次轮询间隔，单位：秒）；
+ * 3. 函数：min(a, b, ...)、max(a, b, ...)、pow(a, b)、
+ * jitter(x)（0~x之间随机）、jitter(x, ratio)（x上下浮动ratio比例随机）。
+ * <p>
+ * 示例：min(pow(2, $count), 300)、jitter($intervalTime * 2, 0.2)
+ *
+ */
+public final class IntervalExpression {
+    /**
+     * 轮询间隔上限（30天），单位：秒
+     */
+    public static final long MAX_INTERVAL = 30L * 24 * 60 * 60;
+    private static final String COUNT = "$count";
+    private static final String INTERVAL_TIME = "$intervalTime";
+
+    private final String source;
+    private final Node root;
+
+    private IntervalExpression(String source, Node root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /**
+     * 编译表达式
+     *
+     * @param expression 表达式
+     * @return 编译后的表达式
+     * @throws IllegalArgumentException 表达式不合法
+     */
+    public static IntervalExpression compile(String expression) {
+        Assert.notEmpty(expression, "interval expression is empty");
+        Parser parser = new Parser(expression);
+        Node root = parser.parseExpression();
+        parser.skipSpace();
+        if (parser.pos < expression.length()) {
+            throw parser.error("unexpected '" + expression.charAt(parser.pos) + "'");
+        }
+        return new IntervalExpression(expression, root);
+    }
+
+    /**
+     * 求值
+     *
+     * @param count        当前轮询次数
+     * @param intervalTime 上次轮询间隔，单位：秒
+     * @return 计算结果
+     */
+    public double eval(double count, double intervalTime) {
+        return root.eval(count, intervalTime);
+    }
+
+    /**
+     * 求值并截断小数部分，结果小于1（含非数值）时取1，大于{@link #MAX_INTERVAL}（含无穷大）时取上限
+     *
+     * @param count        当前轮询次数
+     * @param intervalTime 上次轮询间隔，单位：秒
+     * @return 计算结果，范围[1, MAX_INTERVAL]
+     * @throws IllegalArgumentException 求值时除数为0
+     */
+    public long evalLong(long count, long intervalTime) {
+        double value = root.eval(count, intervalTime);
+        if (value >= MAX_INTERVAL) {
+            return MAX_INTERVAL;
+        }
+        // NaN不满足比较条件，同样取1
+        return value >= 1 ? (long) value : 1L;
+    }
+
+    /**
+     * 是否为常量表达式（不含变量及随机函数，编译时已计算结果）
+     *
+     * @return true：常量
+     */
+    public boolean isConstant() {
+        return root.isConstant();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * 表达式节点
+     */
+    private abstract static class Node {
+        abstract double eval(double count, double intervalTime);
+
+        boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class Constant extends Node {
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double eval(double count, double intervalTime) {
+            return value;
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    private static final class Count extends Node {
+        @Override
+        double eval(double count, double intervalTime) {
+            return count;
+        }
+    }
+
+    private static final class IntervalTime extends Node {
+        @Override
+        double eval(double count, double intervalTime) {
+            return intervalTime;
+        }
+    }
+
+    private static final class Negate extends Node {
+        private final Node operand;
+
+        Negate(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        double eval(double count, double intervalTime) {
+            return -operand.eval(count, intervalTime);
+        }
+    }
+
+    private static final class Binary extends Node {
+        private final char op;
+        private final Node left;
+        private final Node right;
+
+        Binary(char op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double eval(double count, double intervalTime) {
+            double a = left.eval(count, intervalTime);
+            double b = right.eval(count, intervalTime);
+            switch (op) {
+                case '+':
+                    return a + b;
+                case '-':
+                    return a - b;
+                case '*':
+                    return a * b;
+                case '/':
+                    if (b == 0) {
+                        throw new IllegalArgumentException("除数不能为0");
+                    }
+                    return a / b;
+                default:
+                    if (b == 0) {
+                        throw new IllegalArgumentException("除数不能为0");
+                    }
+                    return a % b;
+            }
+        }
+    }
+
+    private static final class Min extends Node {
+        private final Node[] args;
+
+        Min(Node[] args) {
+            this.args = args;
+        }
+
+        @Override
+        double eval(double count, double intervalTime) {
+            double v = args[0].eval(count, intervalTime);
+            for (int i = 1; i < args.length; i++) {
+                v = Math.min(v, args[i].eval(count, intervalTime));
+            }
+            return v;
+        }
+    }
+
+    private static final class Max extends Node {
+        private final Node[] args;
+
+        Max(Node[] args) {
+            this.args = args;
+        }
+
+        @Override
+        double eval(double count, double intervalTime) {
+            double v = args[0].eval(count, intervalTime);
+            for (int i = 1; i < args.length; i++) {
+                v = Math.max(v, args[i].eval(count, intervalTime));
+            }
+            return v;
+        }
+    }
+
+    private static final class Pow extends Node {
+        private final Node base;
+        private final Node exponent;
+
+        Pow(Node base, Node exponent) {
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        @Override
+        double eval(double count, double intervalTime) {
+            return Math.pow(base.eval(count, intervalTime), exponent.eval(count, intervalTime));
+        }
+    }
+
+    /**
+     * 随机抖动，ratio为null时在[0, x)之间随机，否则在x*(1±ratio)之间随机
+     */
+    private static final class Jitter extends Node {
+        private final Node value;
+        private final Node ratio;
+
+        Jitter(Node value, Node ratio) {
+            this.value = value;
+            this.ratio = ratio;
+        }
+
+        @Override
+        double eval(double count, double intervalTime) {
+            double v = value.eval(count, intervalTime);
+            double r = ThreadLocalRandom.current().nextDouble();
+            if (null == ratio) {
+                return v * r;
+            }
+            return v * (1 + ratio.eval(count, intervalTime) * (2 * r - 1));
+        }
+    }
+
+    /**
+     * 递归下降解析：
+     * expression := term (('+' | '-') term)*
+     * term       := unary (('*' | '/' | '%') unary)*
+     * unary      := '-' unary | primary
+     * primary    := number | variable | function '(' args ')' | '(' expression ')'
+     */
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Node parseExpression() {
+            Node node = parseTerm();
+            while (true) {
+                char ch = peek();
+                if (ch != '+' && ch != '-') {
+                    return node;
+                }
+                pos++;
+                node = binary(ch, node, parseTerm());
+            }
+        }
+
+        private Node parseTerm() {
+            Node node = parseUnary();
+            while (true) {
+                char ch = peek();
+                if (ch != '*' && ch != '/' && ch != '%') {
+                    return node;
+                }
+                pos++;
+                node = binary(ch, node, parseUnary());
+            }
+        }
+
+        private Node parseUnary() {
+            if (peek() == '-') {
+                pos++;
+                Node operand = parseUnary();
+                return operand.isConstant() ? new Constant(-operand.eval(0, 0)) : new Negate(operand);
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            char ch = peek();
+            if (ch == '(') {
+                pos++;
+                Node node = parseExpression();
+                expect(')');
+                return node;
+            }
+            if (Character.isDigit(ch) || ch == '.') {
+                return parseNumber();
+            }
+            if (ch == '$') {
+                return parseVariable();
+            }
+            if (Character.isLetter(ch)) {
+                return parseFunction();
+            }
+            throw error(pos < text.length() ? "unexpected '" + ch + "'" : "unexpected end");
+        }
+
+        private Node parseNumber() {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            try {
+                return new Constant(Double.parseDouble(text.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("invalid number");
+            }
+        }
+
+        private Node parseVariable() {
+            if (text.startsWith(INTERVAL_TIME, pos)) {
+                pos += INTERVAL_TIME.length();
+                return new IntervalTime();
+            }
+            if (text.startsWith(COUNT, pos)) {
+                pos += COUNT.length();
+                return new Count();
+            }
+            throw error("unknown variable");
+        }
+
+        private Node parseFunction() {
+            int start = pos;
+            while (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+                pos++;
+            }
+            String name = text.substring(start, pos);
+            expect('(');
+            List<Node> args = new ArrayList<>(2);
+            args.add(parseExpression());
+            while (peek() == ',') {
+                pos++;
+                args.add(parseExpression());
+            }
+            expect(')');
+            Node[] arr = args.toArray(new Node[0]);
+            Node node;
+            switch (name) {
+                case "min":
+                    node = new Min(arr);
+                    break;
+                case "max":
+                    node = new Max(arr);
+                    break;
+                case "pow":
+                    arity(name, start, arr, 2, 2);
+                    node = new Pow(arr[0], arr[1]);
+                    break;
+                case "jitter":
+                    arity(name, start, arr, 1, 2);
+                    // 随机值不做常量折叠
+                    return new Jitter(arr[0], arr.length > 1 ? arr[1] : null);
+                default:
+                    pos = start;
+                    throw error("unknown function '" + name + "'");
+            }
+            return fold(node, arr);
+        }
+
+        private void arity(String name, int start, Node[] args, int min, int max) {
+            if (args.length < min || args.length > max) {
+                pos = start;
+                throw error("wrong number of arguments for '" + name + "'");
+            }
+        }
+
+        private Node binary(char op, Node left, Node right) {
+            return fold(new Binary(op, left, right), left, right);
+        }
+
+        /**
+         * 参数均为常量时，编译期直接计算
+         */
+        private Node fold(Node node, Node... args) {
+            for (Node arg : args) {
+                if (!arg.isConstant()) {
+                    return node;
+                }
+            }
+            return new Constant(node.eval(0, 0));
+        }
+
+        private void expect(char ch) {
+            if (peek() != ch) {
+                throw error("expected '" + ch + "'");
+            }
+            pos++;
+        }
+
+        private char peek() {
+            skipSpace();
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("invalid interval expression [" + text + "] at " + pos + ": " + message);
+        }
+    }
+}
@@ -20,17 +20,35 @@ public class NamedThreadFactory implements ThreadFactory {
      */
     private final AtomicInteger threadNumber = new AtomicInteger(1);
 
+    /**
+     * 是否为守护线程
+     */
+    private final boolean daemon;
+
     /**
      * 创建线程工厂
      *
      * @param prefix 线程名前缀
      */
     public NamedThreadFactory(String prefix) {
+        this(prefix, false);
+    }
+
+    /**
+     * 创建线程工厂
+     *
+     * @param prefix 线程名前缀
+     * @param daemon 是否为守护线程
+     */
+    public NamedThreadFactory(String prefix, boolean daemon) {
         this.prefix = prefix;
+        this.daemon = daemon;
     }
 
     @Override
     public Thread newThread(Runnable r) {
-        return new Thread(null, r, prefix + threadNumber.getAndIncrement());
+        Thread thread = new Thread(null, r, prefix + threadNumber.getAndIncrement());
+        thread.setDaemon(daemon);
+        return thread;
     }
 }
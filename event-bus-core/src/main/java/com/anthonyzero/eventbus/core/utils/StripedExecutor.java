@@ -0,0 +1,65 @@
+package com.anthonyzero.eventbus.core.utils;
+
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分段执行器，由多个单线程通道组成，相同键的任务固定在同一通道中按提交顺序执行，不同键的任务并行执行；
+ * 通道队列已满时提交阻塞等待
+ *
+ */
+public class StripedExecutor {
+
+    /**
+     * 单线程通道
+     */
+    private final ThreadPoolExecutor[] lanes;
+
+    /**
+     * 创建分段执行器
+     *
+     * @param prefix   线程名前缀
+     * @param size     通道数
+     * @param capacity 每个通道的队列容量
+     */
+    public StripedExecutor(String prefix, int size, int capacity) {
+        Assert.isTrue(size > 0, "lane size must be greater than 0");
+        this.lanes = new ThreadPoolExecutor[size];
+        for (int i = 0; i < size; i++) {
+            lanes[i] = new WaitThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingDeque<>(Math.max(1, capacity)), new NamedThreadFactory(prefix + i + "-"));
+        }
+    }
+
+    /**
+     * 提交任务到键对应的通道
+     *
+     * @param key  键
+     * @param task 任务
+     */
+    public void execute(Object key, Runnable task) {
+        lanes[lane(key)].execute(task);
+    }
+
+    /**
+     * 键对应的通道下标
+     *
+     * @param key 键
+     * @return 通道下标
+     */
+    public int lane(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return (h & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    /**
+     * 关闭，已提交的任务继续执行
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
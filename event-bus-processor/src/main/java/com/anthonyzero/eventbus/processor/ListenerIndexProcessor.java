@@ -0,0 +1,147 @@
+package com.anthonyzero.eventbus.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 订阅器索引生成
+ * 编译期找出含有 @Listener、@DelayListener 方法的类，以及 MsgListener、MsgDelayListener 的实现类，
+ * 写入 META-INF/eventbus/listener.index（每行一个类全限定名），
+ * 启动时注册中心只需处理索引中的类，无需遍历全部bean的方法；
+ * 方法上的 @Fail、@Polling 等配置仍在注册时读取
+ *
+ */
+@SupportedAnnotationTypes("*")
+public class ListenerIndexProcessor extends AbstractProcessor {
+
+    /**
+     * 索引文件位置，与 com.anthonyzero.eventbus.core.support.ListenerIndex 保持一致
+     */
+    static final String INDEX_LOCATION = "META-INF/eventbus/listener.index";
+
+    private static final String[] METHOD_ANNOTATIONS = {
+            "com.anthonyzero.eventbus.core.api.annotation.Listener",
+            "com.anthonyzero.eventbus.core.api.annotation.DelayListener"
+    };
+    private static final String[] LISTENER_INTERFACES = {
+            "com.anthonyzero.eventbus.core.api.MsgListener",
+            "com.anthonyzero.eventbus.core.api.MsgDelayListener"
+    };
+
+    private final Set<String> listeners = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        // 不声明处理任何注解，其他处理器照常执行
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        if (type.getKind() == ElementKind.CLASS
+                && !type.getModifiers().contains(Modifier.ABSTRACT)
+                && (hasListenerMethod(type) || isListenerImpl(type))) {
+            listeners.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        }
+        // 静态内部类
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement && enclosed.getModifiers().contains(Modifier.STATIC)) {
+                collect(enclosed);
+            }
+        }
+    }
+
+    private boolean hasListenerMethod(TypeElement type) {
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            for (AnnotationMirror mirror : enclosed.getAnnotationMirrors()) {
+                String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+                for (String annotation : METHOD_ANNOTATIONS) {
+                    if (annotation.equals(name)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isListenerImpl(TypeElement type) {
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror target = types.erasure(type.asType());
+        for (String name : LISTENER_INTERFACES) {
+            TypeElement listener = elements.getTypeElement(name);
+            if (null != listener && types.isAssignable(target, types.erasure(listener.asType()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入索引，增量编译时合并已有索引
+     */
+    private void writeIndex() {
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        listeners.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException ignored) {
+            // 不存在已有索引
+        }
+        if (listeners.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String listener : listeners) {
+                    writer.write(listener);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "eventbus listener index write fail: " + e.getMessage());
+        }
+    }
+}
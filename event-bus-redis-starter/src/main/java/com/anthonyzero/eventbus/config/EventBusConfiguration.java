@@ -3,6 +3,8 @@ package com.anthonyzero.eventbus.config;
 import com.anthonyzero.eventbus.core.api.interceptor.*;
 import com.anthonyzero.eventbus.prop.EventBusProperties;
 import com.anthonyzero.eventbus.SpringBootConnectionWatchdog;
+import com.anthonyzero.eventbus.core.api.DeadLetterQueue;
+import com.anthonyzero.eventbus.core.api.IdempotentStore;
 import com.anthonyzero.eventbus.core.api.MsgSender;
 import com.anthonyzero.eventbus.core.base.Lifecycle;
 import com.anthonyzero.eventbus.core.base.NodeTestConnect;
@@ -11,6 +13,7 @@ import com.anthonyzero.eventbus.core.config.InterceptorConfig;
 import com.anthonyzero.eventbus.core.part.ConnectionWatchdog;
 import com.anthonyzero.eventbus.core.part.DeliveryEventBus;
 import com.anthonyzero.eventbus.core.part.ListenerRegistry;
+import com.anthonyzero.eventbus.core.support.ListenerIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
@@ -23,10 +26,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
+import java.security.CodeSource;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author : jin.ping
@@ -39,6 +48,11 @@ import java.util.Map;
 @ConditionalOnProperty(prefix = "eventbus", name = "enable", havingValue = "true", matchIfMissing = true)
 public class EventBusConfiguration {
 
+    /**
+     * 不包含订阅器的框架包
+     */
+    private static final String[] FRAMEWORK_PACKAGES = {"org.springframework.", "com.anthonyzero.eventbus."};
+
     /**
      * 事件总线拦截器配置
      */
@@ -60,14 +74,68 @@ public class EventBusConfiguration {
     @ConditionalOnMissingBean(ListenerRegistry.class)
     public ListenerRegistry listenerRegistry(ApplicationContext context, Environment environment, EventBusProperties eventBusProperties) {
         busConfig(environment, eventBusProperties);
-        // Component
-        Map<String, Object> beanMap = context.getBeansWithAnnotation(Component.class);
         ListenerRegistry registry = new ListenerRegistry(eventBusProperties);
         // 启动注册业务监听器 （注册中心）
-        registry.register(beanMap.values());
+        Collection<Object> beans = listenerBeans(context, eventBusProperties);
+        if (!beans.isEmpty()) {
+            registry.register(beans);
+        }
         return registry;
     }
 
+    /**
+     * 获取订阅器bean，存在编译期索引时获取索引中的类，仅当存在未生成索引的jar或目录时扫描其中的@Component bean；
+     * 否则扫描全部@Component bean
+     */
+    private Collection<Object> listenerBeans(ApplicationContext context, EventBusProperties eventBusProperties) {
+        ListenerIndex index = eventBusProperties.getIgnoreIndex() ? null : ListenerIndex.load(null == context.getClassLoader() ? ClassUtils.getDefaultClassLoader() : context.getClassLoader());
+        if (null == index) {
+            return context.getBeansWithAnnotation(Component.class).values();
+        }
+        Map<Object, Object> beans = new IdentityHashMap<>();
+        for (Class<?> cla : index.getClasses()) {
+            context.getBeansOfType(cla).values().forEach(bean -> beans.put(bean, bean));
+        }
+        int indexed = beans.size();
+        // 按bean定义的类型定位所在jar或目录，仅实例化未生成索引位置中的bean
+        Set<String> unindexed = new LinkedHashSet<>();
+        for (String name : context.getBeanNamesForAnnotation(Component.class)) {
+            Class<?> type = context.getType(name);
+            if (null != type) {
+                type = ClassUtils.getUserClass(type);
+                if (isFramework(type) || index.covers(type)) {
+                    continue;
+                }
+                unindexed.add(location(type));
+            }
+            Object bean = context.getBean(name);
+            beans.put(bean, bean);
+        }
+        if (!unindexed.isEmpty()) {
+            log.info("Eventbus listener index missing in {}, scanning their @Component beans", unindexed);
+        }
+        log.info("Eventbus listener index found, {} indexed listener beans, {} unindexed beans to scan", indexed, beans.size() - indexed);
+        return beans.values();
+    }
+
+    /**
+     * 框架自身的类不会声明订阅器，所在的jar无需索引
+     */
+    private static boolean isFramework(Class<?> type) {
+        String name = type.getName();
+        for (String prefix : FRAMEWORK_PACKAGES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String location(Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        return null == codeSource || null == codeSource.getLocation() ? type.getName() : codeSource.getLocation().toString();
+    }
+
     /**
      * 事件总线配置
      */
@@ -90,6 +158,22 @@ public class EventBusConfiguration {
             }
         }
         config.setServiceId(serviceId);
+        checkLocalThreshold(config);
+    }
+
+    /**
+     * 本地重试阈值需小于待确认消息重发的超时时间，否则本地等待期间消息可能被重发任务再次投递，超出时调整为超时时间减1秒
+     */
+    private void checkLocalThreshold(EventBusProperties config) {
+        Long localThreshold = config.getFail().getLocalThreshold();
+        Long deliverTimeout = config.getRedis().getDeliverTimeout();
+        if (null == localThreshold || null == deliverTimeout || localThreshold <= 0 || localThreshold < deliverTimeout) {
+            return;
+        }
+        long threshold = Math.max(deliverTimeout - 1, 0L);
+        log.warn("Eventbus fail.local-threshold={}s must be less than redis.deliver-timeout={}s, adjusted to {}s",
+                localThreshold, deliverTimeout, threshold);
+        config.getFail().setLocalThreshold(threshold);
     }
 
     /**
@@ -98,8 +182,13 @@ public class EventBusConfiguration {
     @Bean
     @ConditionalOnBean(MsgSender.class)
     @ConditionalOnMissingBean(DeliveryEventBus.class)
-    public DeliveryEventBus deliveryEventBus(InterceptorConfig interceptorConfig, GlobalConfig busConfig, MsgSender msgSender, ListenerRegistry registry) {
-        return new DeliveryEventBus(interceptorConfig, busConfig, msgSender, registry);
+    public DeliveryEventBus deliveryEventBus(InterceptorConfig interceptorConfig, GlobalConfig busConfig, MsgSender msgSender, ListenerRegistry registry,
+                                             @Autowired(required = false) DeadLetterQueue deadLetterQueue,
+                                             @Autowired(required = false) IdempotentStore idempotentStore) {
+        DeliveryEventBus deliveryEventBus = new DeliveryEventBus(interceptorConfig, busConfig, msgSender, registry);
+        deliveryEventBus.setDeadLetterQueue(deadLetterQueue);
+        deliveryEventBus.setIdempotentStore(idempotentStore);
+        return deliveryEventBus;
     }
 
     /**
@@ -3,10 +3,12 @@ package com.anthonyzero.eventbus.config;
 import com.anthonyzero.eventbus.core.api.RequestIdGenerator;
 import com.anthonyzero.eventbus.core.config.GlobalConfig;
 import com.anthonyzero.eventbus.core.config.InterceptorConfig;
+import com.anthonyzero.eventbus.core.constant.EventBusConstant;
 import com.anthonyzero.eventbus.core.part.DeliveryEventBus;
 import com.anthonyzero.eventbus.core.part.ListenerRegistry;
 import com.anthonyzero.eventbus.core.part.TaskRegistry;
 import com.anthonyzero.eventbus.core.utils.Assert;
+import com.anthonyzero.eventbus.core.utils.ExecutorUtil;
 import com.anthonyzero.eventbus.prop.EventBusProperties;
 import com.anthonyzero.eventbus.provider.*;
 import com.anthonyzero.eventbus.provider.task.RedisPendingMsgResendTask;
@@ -57,20 +59,28 @@ public class EventBusRedisConfiguration {
     }
 
 
+    //消息标识字典
+    @Bean
+    public RedisDictionary redisDictionary(StringRedisTemplate busStringRedisTemplate, EventBusProperties eventBusProperties,
+                                           @Qualifier("dictAddRedisScript") DefaultRedisScript<Long> dictAddRedisScript) {
+        return new RedisDictionary(busStringRedisTemplate, dictAddRedisScript, eventBusProperties.getEnv());
+    }
+
     /**
      * 任务注册器
      */
     @Bean
-    public TaskRegistry taskRegistry() {
-        return new TaskRegistry();
+    public TaskRegistry taskRegistry(EventBusProperties eventBusProperties) {
+        return new TaskRegistry(ExecutorUtil.getProvider(eventBusProperties.getExecutor()).createTaskExecutor(EventBusConstant.TASK_NAME));
     }
 
     //及时消息订阅者容器
     @Bean
     public RedisMsgSubscribeContainer redisMsgSubscribeContainer(
             StringRedisTemplate busStringRedisTemplate,
-            EventBusProperties eventBusProperties, ListenerRegistry registry, DeliveryEventBus deliveryEventBus) {
-        return new RedisMsgSubscribeContainer(busStringRedisTemplate, eventBusProperties, registry.getTimelyListeners(), deliveryEventBus);
+            EventBusProperties eventBusProperties, ListenerRegistry registry, DeliveryEventBus deliveryEventBus,
+            RedisDictionary redisDictionary) {
+        return new RedisMsgSubscribeContainer(busStringRedisTemplate, eventBusProperties, registry.getTimelyListeners(), deliveryEventBus, redisDictionary);
     }
 
     //延时消息订阅者容器
@@ -78,27 +88,45 @@ public class EventBusRedisConfiguration {
     public RedisMsgDelayContainer redisMsgDelayContainer(
             StringRedisTemplate busStringRedisTemplate, TaskRegistry taskRegistry,
             EventBusProperties eventBusProperties,
-            @Qualifier("pushMsgStreamRedisScript") DefaultRedisScript<Long> pushMsgStreamRedisScript, RLock rLock, DeliveryEventBus deliveryEventBus) {
-        return new RedisMsgDelayContainer(busStringRedisTemplate, taskRegistry, eventBusProperties, pushMsgStreamRedisScript, rLock, deliveryEventBus);
+            @Qualifier("pushMsgStreamRedisScript") DefaultRedisScript<Long> pushMsgStreamRedisScript, RLock rLock, DeliveryEventBus deliveryEventBus,
+            RedisDictionary redisDictionary) {
+        return new RedisMsgDelayContainer(busStringRedisTemplate, taskRegistry, eventBusProperties, pushMsgStreamRedisScript, rLock, deliveryEventBus, redisDictionary);
     }
 
     //消息生产者（redis）
     @Bean
     public RedisMsgSender msgSender(StringRedisTemplate busStringRedisTemplate,
-                                    GlobalConfig config,
+                                    EventBusProperties config,
                                     @Lazy InterceptorConfig interceptorConfig,
                                     @Qualifier("zsetAddRedisScript")
                                     DefaultRedisScript<Long> zsetAddRedisScript,
-                                    TaskRegistry taskRegistry, RequestIdGenerator requestIdGenerator, @Lazy ListenerRegistry registry) {
-        return new RedisMsgSender(busStringRedisTemplate, config, interceptorConfig, zsetAddRedisScript, taskRegistry, requestIdGenerator, registry);
+                                    TaskRegistry taskRegistry, RequestIdGenerator requestIdGenerator, @Lazy ListenerRegistry registry,
+                                    RedisDictionary redisDictionary) {
+        return new RedisMsgSender(busStringRedisTemplate, config, interceptorConfig, zsetAddRedisScript, taskRegistry, requestIdGenerator, registry, redisDictionary);
+    }
+
+    //死信队列
+    @Bean
+    @ConditionalOnProperty(prefix = "eventbus.dead-letter", name = "enabled", havingValue = "true")
+    public RedisDeadLetterQueue redisDeadLetterQueue(StringRedisTemplate busStringRedisTemplate, EventBusProperties eventBusProperties,
+                                                     RedisMsgSender msgSender, RLock rLock) {
+        return new RedisDeadLetterQueue(busStringRedisTemplate, eventBusProperties, msgSender, rLock);
+    }
+
+    //消费幂等
+    @Bean
+    @ConditionalOnProperty(prefix = "eventbus.idempotent", name = "enabled", havingValue = "true")
+    public RedisIdempotentStore redisIdempotentStore(StringRedisTemplate busStringRedisTemplate, EventBusProperties eventBusProperties) {
+        return new RedisIdempotentStore(busStringRedisTemplate, eventBusProperties);
     }
 
     //PEL
     @Bean
     public RedisPendingMsgResendTask redisPendingMsgResendTask(
             StringRedisTemplate busStringRedisTemplate, TaskRegistry taskRegistry,
-            EventBusProperties eventBusProperties, ListenerRegistry registry, RLock rLock, RedisMsgSender msgSender) {
-        return new RedisPendingMsgResendTask(busStringRedisTemplate, taskRegistry, eventBusProperties, registry.getTimelyListeners(), rLock, msgSender);
+            EventBusProperties eventBusProperties, ListenerRegistry registry, RLock rLock, RedisMsgSender msgSender,
+            RedisDictionary redisDictionary) {
+        return new RedisPendingMsgResendTask(busStringRedisTemplate, taskRegistry, eventBusProperties, registry.getTimelyListeners(), rLock, msgSender, redisDictionary);
     }
 
     //XTRIM
@@ -167,6 +195,17 @@ public class EventBusRedisConfiguration {
             redisScript.setResultType(Long.class);
             return redisScript;
         }
+
+        /**
+         * redis 消息标识字典登记脚本
+         */
+        @Bean
+        public DefaultRedisScript<Long> dictAddRedisScript() {
+            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("script/dictAdd.lua")));
+            redisScript.setResultType(Long.class);
+            return redisScript;
+        }
     }
 
     /**
@@ -36,6 +36,13 @@ public class RedisConstant {
      * 1.服务serviceId;
      */
     public static final String BUS_DELAY_PREFIX = SUFFIX + "delay-zset:{%s}";
+    /**
+     * 延时消息数据hash key前缀，完整key为前缀 + 消息编号，与延时队列zset同一hash tag
+     * 参数：
+     * <p>
+     * 1.服务serviceId;
+     */
+    public static final String BUS_DELAY_MSG_PREFIX = SUFFIX + "delay-msg:{%s}:";
     /**
      * 延时消息通知Stream队列key前缀
      * 参数：
@@ -43,4 +50,41 @@ public class RedisConstant {
      * 1.服务serviceId;
      */
     public static final String BUS_DELAY_SUBSCRIBE_PREFIX = SUFFIX + "queue-delay:{%s}";
+
+    /**
+     * 消息标识字典key（同一环境下所有服务共用，跨服务订阅时无需知道发送方即可解码）
+     */
+    public static final String BUS_DICT_PREFIX = SUFFIX + "dict";
+
+    /**
+     * 死信队列Stream key，与延时消息流同一hash tag
+     * 参数：
+     * <p>
+     * 1.服务serviceId;
+     * 2.投递ID（deliverId）;
+     */
+    public static final String BUS_DEAD_LETTER_PREFIX = SUFFIX + "dead-letter:{%s}:%s";
+
+    /**
+     * 死信重新投递进度（最后投递的死信消息ID）key
+     * 参数：
+     * <p>
+     * 1.服务serviceId;
+     * 2.投递ID（deliverId）;
+     */
+    public static final String BUS_DEAD_LETTER_CHECKPOINT_PREFIX = SUFFIX + "dead-letter-checkpoint:{%s}:%s";
+
+    /**
+     * 消费幂等已处理记录set key，按时间分桶
+     * 参数：
+     * <p>
+     * 1.服务serviceId;
+     * 2.时间桶编号（当前时间 / 记录保留时长）;
+     */
+    public static final String BUS_IDEMPOTENT_PREFIX = SUFFIX + "processed:{%s}:%s";
+
+    /**
+     * Stream消息数据字段名
+     */
+    public static final String PAYLOAD = "payload";
 }
@@ -19,6 +19,105 @@ public class EventBusProperties extends GlobalConfig {
      */
     private RedisProperties redis = new RedisProperties();
 
+    /**
+     * 消息压缩配置
+     */
+    private Compress compress = new Compress();
+
+    /**
+     * 是否忽略编译期生成的订阅器索引（event-bus-processor），默认：否；
+     * 包含索引的jar或目录只注册索引中的类，未生成索引的模块仍扫描；开启后扫描全部@Component bean
+     */
+    private Boolean ignoreIndex = false;
+
+    /**
+     * 死信队列配置
+     */
+    private DeadLetter deadLetter = new DeadLetter();
+
+    /**
+     * 消息发送累加器配置
+     */
+    private Accumulator accumulator = new Accumulator();
+
+    /**
+     * 消息发送累加器配置，开启后及时消息先写入缓冲区，按批次通过一次pipeline写入
+     */
+    @Data
+    public static class Accumulator {
+        /**
+         * 是否开启，默认：否；开启后send()写入缓冲区即返回，发送失败只记录错误日志，需要发送结果时使用sendAsync()
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 单个stream缓冲的消息数达到该值时立即发送，默认：100条
+         */
+        private Integer batchSize = 100;
+
+        /**
+         * 消息在缓冲区的最长等待时间，单位：毫秒，默认：5毫秒
+         */
+        private Long lingerMs = 5L;
+
+        /**
+         * 缓冲及发送中的消息最大占用内存，单位：字节，默认：32MB
+         */
+        private Long bufferMemory = 32 * 1024 * 1024L;
+
+        /**
+         * 缓冲区已满时的最长等待时间，超时抛出异常，为0时直接抛出，单位：毫秒，默认：60000毫秒
+         */
+        private Long maxBlockMs = 60 * 1000L;
+    }
+
+    /**
+     * 死信队列配置
+     */
+    @Data
+    public static class DeadLetter {
+        /**
+         * 是否开启死信队列，默认：否；开启后重试投递全部失败的消息按订阅器写入死信Stream
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 每个订阅器死信Stream保留的最大消息数，默认：100000条
+         */
+        private Long maxLength = 100000L;
+
+        /**
+         * 重新投递速率，单位：条/秒，默认：1000条
+         */
+        private Integer replayRate = 1000;
+
+        /**
+         * 重新投递时单次（一次pipeline）投递的消息数，默认：100条
+         */
+        private Integer replayBatchSize = 100;
+    }
+
+    /**
+     * 消息压缩配置
+     */
+    @Data
+    public static class Compress {
+        /**
+         * 是否开启压缩，默认：否；消费端可同时识别压缩及未压缩的数据，开启前需先完成所有消费端的升级
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 压缩阈值，消息体（或延时消息）大于该值时压缩，单位：字节，默认：4096
+         */
+        private Integer threshold = 4096;
+
+        /**
+         * 压缩算法（deflate、lz4），默认：deflate；lz4需引入 lz4-java 依赖
+         */
+        private String algorithm = "deflate";
+    }
+
     /**
      * redis配置
      */
@@ -59,6 +158,36 @@ public class EventBusProperties extends GlobalConfig {
          */
         private Long streamExpiredLength = 50000L;
 
+        /**
+         * 是否按旧版单字段格式（payload）写入消息，默认：是；
+         * 所有消费端升级后关闭，按消息头各字段单独存储的格式写入（字典编号只在该格式下生效）
+         */
+        private Boolean payloadRecord = true;
+
+        /**
+         * 延时消息是否按消息编号写入zset、消息数据单独存储在hash中，默认：否（zset成员为完整消息，相同消息会合并为一条）；
+         * 旧版本节点转移延时消息时无法读取hash中的消息数据，所有节点升级后再开启；
+         * 消息数据key未在脚本KEYS中声明，集群代理校验脚本key时不能开启
+         */
+        private Boolean delayMsgHash = false;
+
+        /**
+         * 是否将消息标识（serviceId、code、deliverId）按字典编号写入，减少小消息的存储占用，默认：否；
+         * 消费端可同时识别两种写法，开启前需先完成所有消费端的升级
+         */
+        private Boolean dictionary = false;
+
+        /**
+         * 按消息键顺序投递的分发通道数，大于0时开启：及时消息按消息键哈希分配到单线程通道，
+         * 相同键的消息按发送顺序投递，不同键并行投递，每个订阅器只使用一个消费者拉取消息；默认：0（不开启）
+         */
+        private Integer keyLanes = 0;
+
+        /**
+         * 异步发送（sendAsync）未完成的最大消息数，达到上限时发送线程等待，默认：1024条
+         */
+        private Integer asyncMaxPending = 1024;
+
         /**
          * redis版本号，不用配置，系统自动设定
          */
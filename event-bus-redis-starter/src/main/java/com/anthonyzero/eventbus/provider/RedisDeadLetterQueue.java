@@ -0,0 +1,225 @@
+package com.anthonyzero.eventbus.provider;
+
+import com.anthonyzero.eventbus.constant.RedisConstant;
+import com.anthonyzero.eventbus.core.api.DeadLetterQueue;
+import com.anthonyzero.eventbus.core.exception.EventBusException;
+import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.utils.Assert;
+import com.anthonyzero.eventbus.prop.EventBusProperties;
+import com.anthonyzero.eventbus.provider.support.RedisRecordUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * redis死信队列实现
+ * 每个订阅器（投递ID）一个死信Stream，消息记录与及时消息格式相同，另记录失败原因及失败时间；
+ * 重新投递时按批次（pipeline）写入本服务的延时消息流，按投递ID直接交由原订阅器处理，投递次数重新计算，
+ * 按配置速率限速，每批次记录投递进度，中断后再次执行从进度处继续
+ *
+ */
+@Slf4j
+public class RedisDeadLetterQueue implements DeadLetterQueue {
+    /**
+     * 失败原因字段名
+     */
+    public static final String ERROR = "error";
+    /**
+     * 失败时间字段名，单位：毫秒
+     */
+    public static final String FAILED_AT = "failedAt";
+    private static final int ERROR_MAX_LENGTH = 1024;
+    private static final byte[] ERROR_FIELD = ERROR.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FAILED_AT_FIELD = FAILED_AT.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DELIVER_COUNT_FIELD = RedisRecordUtil.DELIVER_COUNT.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIRST_DELIVER = "1".getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventBusProperties config;
+    private final RedisMsgSender msgSender;
+    private final RLock rLock;
+    /**
+     * 延时消息流key
+     */
+    private final byte[] delayStreamKey;
+
+    public RedisDeadLetterQueue(StringRedisTemplate stringRedisTemplate, EventBusProperties config, RedisMsgSender msgSender, RLock rLock) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.config = config;
+        this.msgSender = msgSender;
+        this.rLock = rLock;
+        this.delayStreamKey = bytes(String.format(RedisConstant.BUS_DELAY_SUBSCRIBE_PREFIX, config.getEnv(), config.getServiceId()));
+    }
+
+    @Override
+    public void add(Request<?> request, Throwable throwable) {
+        Map<byte[], byte[]> record = new LinkedHashMap<>(msgSender.toFieldRecord(request));
+        record.put(ERROR_FIELD, bytes(error(throwable)));
+        record.put(FAILED_AT_FIELD, bytes(String.valueOf(System.currentTimeMillis())));
+        MapRecord<byte[], byte[], byte[]> mapRecord = MapRecord.create(bytes(key(request.getDeliverId())), record);
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.maxlen(config.getDeadLetter().getMaxLength());
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> connection.streamCommands().xAdd(mapRecord, options));
+    }
+
+    /**
+     * 订阅器的死信消息数
+     *
+     * @param deliverId 投递ID
+     * @return 消息数
+     */
+    public long size(String deliverId) {
+        byte[] key = bytes(key(deliverId));
+        Long size = stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.streamCommands().xLen(key));
+        return null == size ? 0 : size;
+    }
+
+    /**
+     * 按配置速率重新投递订阅器的死信消息
+     *
+     * @param deliverId 投递ID
+     * @return 本次投递的消息数
+     */
+    public long replay(String deliverId) {
+        return replay(deliverId, config.getDeadLetter().getReplayRate());
+    }
+
+    /**
+     * 重新投递订阅器的死信消息，从上次投递进度之后开始，同一订阅器同时只允许一个节点执行
+     *
+     * @param deliverId     投递ID
+     * @param ratePerSecond 投递速率，单位：条/秒
+     * @return 本次投递的消息数
+     */
+    public long replay(String deliverId, int ratePerSecond) {
+        Assert.isTrue(ratePerSecond > 0, "ratePerSecond must be greater than 0");
+        String key = key(deliverId);
+        String lockKey = key + ".replayLock";
+        String lockValue = UUID.randomUUID().toString();
+        if (!rLock.getLock(lockKey, lockValue)) {
+            throw new EventBusException("dead letter replay is running, deliverId=" + deliverId);
+        }
+        try {
+            return doReplay(deliverId, ratePerSecond);
+        } finally {
+            rLock.releaseLock(lockKey, lockValue);
+        }
+    }
+
+    /**
+     * 清除投递进度，下次重新投递时从头开始
+     *
+     * @param deliverId 投递ID
+     */
+    public void resetCheckpoint(String deliverId) {
+        stringRedisTemplate.delete(checkpointKey(deliverId));
+    }
+
+    private long doReplay(String deliverId, int ratePerSecond) {
+        byte[] key = bytes(key(deliverId));
+        byte[] checkpointKey = bytes(checkpointKey(deliverId));
+        String checkpoint = stringRedisTemplate.opsForValue().get(checkpointKey(deliverId));
+        int batchSize = Math.max(1, Math.min(config.getDeadLetter().getReplayBatchSize(), ratePerSecond));
+        long replayed = 0;
+        while (true) {
+            long start = System.nanoTime();
+            List<ByteRecord> records = read(key, checkpoint, batchSize);
+            if (records.isEmpty()) {
+                break;
+            }
+            String last = records.get(records.size() - 1).getId().getValue();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (ByteRecord record : records) {
+                    connection.streamCommands().xAdd(delayStreamKey, replayFields(record.getValue()));
+                }
+                // 与本批消息在同一pipeline中记录进度
+                connection.stringCommands().set(checkpointKey, bytes(last));
+                return null;
+            });
+            checkpoint = last;
+            replayed += records.size();
+            log.debug("dead letter replay deliverId={}, replayed={}, checkpoint={}", deliverId, replayed, checkpoint);
+            // 限速，本批消息按速率应占用的时长未用完时等待
+            long waitNanos = records.size() * TimeUnit.SECONDS.toNanos(1) / ratePerSecond - (System.nanoTime() - start);
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        log.info("dead letter replay finished, deliverId={}, replayed={}", deliverId, replayed);
+        return replayed;
+    }
+
+    /**
+     * 读取进度之后的一批死信消息
+     */
+    private List<ByteRecord> read(byte[] key, String checkpoint, int batchSize) {
+        Range<String> range = null == checkpoint ? Range.unbounded() : Range.rightUnbounded(Range.Bound.inclusive(checkpoint));
+        // 进度消息本身包含在结果中，多读取一条
+        RedisZSetCommands.Limit limit = RedisZSetCommands.Limit.limit().count(null == checkpoint ? batchSize : batchSize + 1);
+        List<ByteRecord> records = stringRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xRange(key, range, limit));
+        if (null == records || records.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (null != checkpoint && records.get(0).getId().getValue().equals(checkpoint)) {
+            return records.subList(1, records.size());
+        }
+        return records;
+    }
+
+    /**
+     * 死信消息转换为重新投递的消息记录，去除失败信息，投递次数重新计算
+     */
+    private Map<byte[], byte[]> replayFields(Map<byte[], byte[]> fields) {
+        Map<byte[], byte[]> record = new LinkedHashMap<>(fields.size());
+        fields.forEach((field, value) -> {
+            String name = new String(field, StandardCharsets.UTF_8);
+            if (ERROR.equals(name) || FAILED_AT.equals(name)) {
+                return;
+            }
+            record.put(field, RedisRecordUtil.DELIVER_COUNT.equals(name) ? FIRST_DELIVER : value);
+        });
+        record.putIfAbsent(DELIVER_COUNT_FIELD, FIRST_DELIVER);
+        return record;
+    }
+
+    private String key(String deliverId) {
+        return String.format(RedisConstant.BUS_DEAD_LETTER_PREFIX, config.getEnv(), config.getServiceId(), deliverId);
+    }
+
+    private String checkpointKey(String deliverId) {
+        return String.format(RedisConstant.BUS_DEAD_LETTER_CHECKPOINT_PREFIX, config.getEnv(), config.getServiceId(), deliverId);
+    }
+
+    /**
+     * 失败原因：异常类名及信息
+     */
+    private static String error(Throwable throwable) {
+        if (null == throwable) {
+            return "";
+        }
+        String error = throwable.getClass().getName() + ": " + throwable.getMessage();
+        return error.length() > ERROR_MAX_LENGTH ? error.substring(0, ERROR_MAX_LENGTH) : error;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package com.anthonyzero.eventbus.provider;
+
+import com.anthonyzero.eventbus.constant.RedisConstant;
+import com.anthonyzero.eventbus.core.exception.EventBusException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 消息标识字典（serviceId、code、deliverId 映射为数字编号）
+ * 同一环境共用一份字典，存储在redis hash中：s:值 -> 编号，i:编号 -> 值，version为当前最大编号；
+ * 编号只增不改，滚动发布时新旧节点可同时读写，本地缓存无需失效，未命中时再查询redis
+ *
+ */
+public class RedisDictionary {
+    private static final String ID_PREFIX = "i:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DefaultRedisScript<Long> dictAddRedisScript;
+    private final String dictKey;
+    /**
+     * 本地缓存，标识值 -> 编号
+     */
+    private final Map<String, String> ids = new ConcurrentHashMap<>();
+    /**
+     * 本地缓存，编号 -> 标识值
+     */
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    public RedisDictionary(StringRedisTemplate stringRedisTemplate, DefaultRedisScript<Long> dictAddRedisScript, String env) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.dictAddRedisScript = dictAddRedisScript;
+        this.dictKey = String.format(RedisConstant.BUS_DICT_PREFIX, env);
+    }
+
+    /**
+     * 获取标识编号，不存在时登记
+     *
+     * @param value 标识值
+     * @return 编号
+     */
+    public String encode(String value) {
+        String id = ids.get(value);
+        if (null != id) {
+            return id;
+        }
+        Long newId = stringRedisTemplate.execute(dictAddRedisScript, Collections.singletonList(dictKey), value);
+        if (null == newId) {
+            throw new EventBusException("dictionary register fail, value=" + value);
+        }
+        id = newId.toString();
+        put(value, id);
+        return id;
+    }
+
+    /**
+     * 获取编号对应的标识值
+     *
+     * @param id 编号
+     * @return 标识值
+     */
+    public String decode(String id) {
+        String value = values.get(id);
+        if (null != value) {
+            return value;
+        }
+        Object v = stringRedisTemplate.opsForHash().get(dictKey, ID_PREFIX + id);
+        if (null == v) {
+            throw new EventBusException("dictionary id not found, id=" + id);
+        }
+        value = v.toString();
+        put(value, id);
+        return value;
+    }
+
+    private void put(String value, String id) {
+        ids.put(value, id);
+        values.put(id, value);
+    }
+}
@@ -0,0 +1,78 @@
+package com.anthonyzero.eventbus.provider;
+
+import com.anthonyzero.eventbus.constant.RedisConstant;
+import com.anthonyzero.eventbus.core.api.IdempotentStore;
+import com.anthonyzero.eventbus.prop.EventBusProperties;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * redis消费幂等存储，已处理记录按时间分桶写入set（桶长度为记录保留时长），每个桶保留两个桶长度；
+ * 查询时检查当前及上一个桶，记录至少保留一个桶长度。
+ * 查询及写入均为一次pipeline
+ *
+ */
+public class RedisIdempotentStore implements IdempotentStore {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventBusProperties config;
+    /**
+     * 桶长度，单位：毫秒
+     */
+    private final long bucketMillis;
+
+    public RedisIdempotentStore(StringRedisTemplate stringRedisTemplate, EventBusProperties config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.config = config;
+        this.bucketMillis = TimeUnit.SECONDS.toMillis(config.getIdempotent().getExpireSeconds());
+    }
+
+    @Override
+    public Set<String> contains(Collection<String> keys) {
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        byte[] current = bucketKey(bucket);
+        byte[] previous = bucketKey(bucket - 1);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                byte[] member = key.getBytes(StandardCharsets.UTF_8);
+                connection.setCommands().sIsMember(current, member);
+                connection.setCommands().sIsMember(previous, member);
+            }
+            return null;
+        });
+        Set<String> processed = new HashSet<>();
+        Iterator<Object> iterator = results.iterator();
+        for (String key : keys) {
+            boolean inCurrent = Boolean.TRUE.equals(iterator.next());
+            boolean inPrevious = Boolean.TRUE.equals(iterator.next());
+            if (inCurrent || inPrevious) {
+                processed.add(key);
+            }
+        }
+        return processed;
+    }
+
+    @Override
+    public void add(Collection<String> keys) {
+        byte[] current = bucketKey(System.currentTimeMillis() / bucketMillis);
+        byte[][] members = keys.stream().map(key -> key.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.setCommands().sAdd(current, members);
+            connection.keyCommands().pExpire(current, bucketMillis * 2);
+            return null;
+        });
+    }
+
+    private byte[] bucketKey(long bucket) {
+        return String.format(RedisConstant.BUS_IDEMPOTENT_PREFIX, config.getEnv(), config.getServiceId(), bucket)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
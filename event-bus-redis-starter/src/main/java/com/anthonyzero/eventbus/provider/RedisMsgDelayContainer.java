@@ -3,18 +3,24 @@ package com.anthonyzero.eventbus.provider;
 import com.anthonyzero.eventbus.constant.RedisConstant;
 import com.anthonyzero.eventbus.prop.EventBusProperties;
 import com.anthonyzero.eventbus.provider.support.RedisListener;
+import com.anthonyzero.eventbus.core.metadata.Request;
 import com.anthonyzero.eventbus.core.part.DeliveryEventBus;
+import com.anthonyzero.eventbus.core.utils.CompressUtil;
 import com.anthonyzero.eventbus.core.part.TaskRegistry;
 import com.anthonyzero.eventbus.core.support.task.PeriodTask;
 import com.anthonyzero.eventbus.provider.support.AbstractStreamListenerContainer;
+import com.anthonyzero.eventbus.provider.support.RedisRecordUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.connection.stream.Record;
+import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author : jin.ping
@@ -35,6 +41,7 @@ public class RedisMsgDelayContainer extends AbstractStreamListenerContainer {
     private final StringRedisTemplate stringRedisTemplate;
     private final RLock rLock;
     private final DeliveryEventBus deliveryEventBus;
+    private final RedisDictionary dictionary;
     private final DefaultRedisScript<Long> pushMsgStreamRedisScript;
     /**
      * 延时消息key,zset
@@ -48,22 +55,29 @@ public class RedisMsgDelayContainer extends AbstractStreamListenerContainer {
      * 延时消息流key
      */
     private final String delayStreamKey;
+    /**
+     * 延时消息数据key前缀
+     */
+    private final String delayMsgKeyPrefix;
     private final TaskRegistry taskRegistry;
     private PeriodTask task;
 
     public RedisMsgDelayContainer(StringRedisTemplate stringRedisTemplate,
                                   TaskRegistry taskRegistry,
                                   EventBusProperties busProperties,
-                                  DefaultRedisScript<Long> pushMsgStreamRedisScript, RLock rLock, DeliveryEventBus deliveryEventBus) {
+                                  DefaultRedisScript<Long> pushMsgStreamRedisScript, RLock rLock, DeliveryEventBus deliveryEventBus,
+                                  RedisDictionary dictionary) {
         super(stringRedisTemplate, busProperties);
         this.stringRedisTemplate = stringRedisTemplate;
         this.taskRegistry = taskRegistry;
         this.pushMsgStreamRedisScript = pushMsgStreamRedisScript;
         this.rLock = rLock;
         this.deliveryEventBus = deliveryEventBus;
+        this.dictionary = dictionary;
         this.delayZetKey = String.format(RedisConstant.BUS_DELAY_PREFIX, busProperties.getEnv(), busProperties.getServiceId());
         this.pollLockKey = String.format(RedisConstant.BUS_DELAY_LOCK_PREFIX, busProperties.getEnv(), busProperties.getServiceId());
         this.delayStreamKey = String.format(RedisConstant.BUS_DELAY_SUBSCRIBE_PREFIX, busProperties.getEnv(), busProperties.getServiceId());
+        this.delayMsgKeyPrefix = String.format(RedisConstant.BUS_DELAY_MSG_PREFIX, busProperties.getEnv(), busProperties.getServiceId());
     }
 
     @Override
@@ -72,8 +86,25 @@ public class RedisMsgDelayContainer extends AbstractStreamListenerContainer {
     }
 
     @Override
-    protected void deliver(RedisListener subscriber, Record<String, String> msg) {
-        deliveryEventBus.deliverDelay(msg.getValue());
+    protected void prefetch(RedisListener subscriber, List<MapRecord<String, String, byte[]>> msgs) {
+        // 延时消息流聚合了所有订阅器的消息，按消息的投递ID记录
+        List<Request<?>> headers = new ArrayList<>(msgs.size());
+        for (MapRecord<String, String, byte[]> msg : msgs) {
+            // 旧版单字段格式需解析完整消息，不预加载
+            if (!RedisRecordUtil.isPayload(msg.getValue())) {
+                headers.add(RedisRecordUtil.toHeader(msg.getValue(), dictionary));
+            }
+        }
+        deliveryEventBus.prefetchProcessed(null, headers);
+    }
+
+    @Override
+    protected CompletableFuture<Void> deliver(RedisListener subscriber, MapRecord<String, String, byte[]> msg) {
+        Map<String, byte[]> fields = msg.getValue();
+        if (RedisRecordUtil.isPayload(fields)) {
+            return deliveryEventBus.deliverDelay(CompressUtil.decompress(fields.get(RedisConstant.PAYLOAD)));
+        }
+        return deliveryEventBus.deliverDelay(RedisRecordUtil.toHeader(fields, dictionary), CompressUtil.decompress(fields.get(RedisRecordUtil.BODY)));
     }
 
     @Override
@@ -97,8 +128,8 @@ public class RedisMsgDelayContainer extends AbstractStreamListenerContainer {
             }
             Long nextCurrentTimeMillis = stringRedisTemplate.execute(pushMsgStreamRedisScript,
                     Arrays.asList(delayZetKey, delayStreamKey),
-                    // 到当前时间之前的消息 + 推送数量
-                    String.valueOf(System.currentTimeMillis()), String.valueOf(MAX_PUSH_COUNT));
+                    // 到当前时间之前的消息 + 推送数量 + 消息数据key前缀
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(MAX_PUSH_COUNT), delayMsgKeyPrefix);
             if (null != nextCurrentTimeMillis) {
                 setNextTriggerTimeMillis(nextCurrentTimeMillis);
             }
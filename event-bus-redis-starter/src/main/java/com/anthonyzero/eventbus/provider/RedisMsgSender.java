@@ -3,19 +3,49 @@ package com.anthonyzero.eventbus.provider;
 import com.anthonyzero.eventbus.constant.RedisConstant;
 import com.anthonyzero.eventbus.core.api.RequestIdGenerator;
 import com.anthonyzero.eventbus.core.base.AbstractSenderAdapter;
-import com.anthonyzero.eventbus.core.config.GlobalConfig;
 import com.anthonyzero.eventbus.core.config.InterceptorConfig;
+import com.anthonyzero.eventbus.core.exception.EventBusException;
 import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.metadata.SendResult;
 import com.anthonyzero.eventbus.core.part.ListenerRegistry;
 import com.anthonyzero.eventbus.core.part.TaskRegistry;
+import com.anthonyzero.eventbus.core.support.spi.ICodec;
+import com.anthonyzero.eventbus.core.support.spi.ICompressor;
 import com.anthonyzero.eventbus.core.support.task.Task;
+import com.anthonyzero.eventbus.core.utils.CompressUtil;
 import com.anthonyzero.eventbus.core.utils.Func;
+import com.anthonyzero.eventbus.prop.EventBusProperties;
+import com.anthonyzero.eventbus.provider.support.RedisRecordUtil;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.connection.stream.Record;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.ClassUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * redis消息生产者实现
@@ -28,42 +58,462 @@ public class RedisMsgSender extends AbstractSenderAdapter {
     private final StringRedisTemplate stringRedisTemplate;
     private final DefaultRedisScript<Long> zsetAddRedisScript;
     private final TaskRegistry taskRegistry;
-    private final GlobalConfig config;
+    private final EventBusProperties config;
+    /**
+     * 消息编码
+     */
+    private final ICodec codec;
+    /**
+     * 消息压缩，未开启时为null
+     */
+    private final ICompressor compressor;
+    /**
+     * 消息标识字典，未开启时为null
+     */
+    private final RedisDictionary dictionary;
+    /**
+     * 异步发送未完成消息数的许可
+     */
+    private final Semaphore asyncPermits;
+    /**
+     * 消息发送累加器，未开启时为null
+     */
+    private final RedisSendAccumulator accumulator;
+    private static final byte[] PAYLOAD = RedisConstant.PAYLOAD.getBytes(StandardCharsets.UTF_8);
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+    /**
+     * 是否使用lettuce客户端（异步发送）
+     */
+    private static final boolean LETTUCE_PRESENT = ClassUtils.isPresent("io.lettuce.core.RedisClient", RedisMsgSender.class.getClassLoader());
 
     public RedisMsgSender(StringRedisTemplate stringRedisTemplate,
-                          GlobalConfig config,
+                          EventBusProperties config,
                           InterceptorConfig interceptorConfig,
                           DefaultRedisScript<Long> zsetAddRedisScript,
-                          TaskRegistry taskRegistry, RequestIdGenerator requestIdGenerator, ListenerRegistry registry) {
+                          TaskRegistry taskRegistry, RequestIdGenerator requestIdGenerator, ListenerRegistry registry,
+                          RedisDictionary dictionary) {
         super(config, interceptorConfig, requestIdGenerator, registry);
         this.stringRedisTemplate = stringRedisTemplate;
         this.zsetAddRedisScript = zsetAddRedisScript;
         this.taskRegistry = taskRegistry;
         this.config = config;
+        this.codec = Func.getCodec(config.getCodec());
+        EventBusProperties.Compress compress = config.getCompress();
+        this.compressor = compress.getEnabled() ? CompressUtil.getCompressor(compress.getAlgorithm()) : null;
+        this.dictionary = config.getRedis().getDictionary() ? dictionary : null;
+        this.asyncPermits = new Semaphore(config.getRedis().getAsyncMaxPending());
+        this.accumulator = config.getAccumulator().getEnabled() ? new RedisSendAccumulator(config.getAccumulator(), this::xAddPipelined) : null;
     }
 
 
     @Override
     public void toSend(Request<?> request) {
-        toSend(String.format(RedisConstant.BUS_SUBSCRIBE_PREFIX, config.getEnv(), request.topic()), request);
+        CompletableFuture<String> future = toSendBuffered(request);
+        if (null == future) {
+            toSend(String.format(RedisConstant.BUS_SUBSCRIBE_PREFIX, config.getEnv(), request.topic()), request);
+            return;
+        }
+        future.whenComplete((id, throwable) -> {
+            if (null != throwable) {
+                log.error("accumulator send error, requestId={}", request.getRequestId(), throwable);
+            }
+        });
+    }
+
+    /**
+     * 开启发送累加器时追加到累加器，由累加器合并写入；累加器已关闭时直接写入
+     */
+    @Override
+    protected CompletableFuture<String> toSendBuffered(Request<?> request) {
+        if (null == accumulator) {
+            return null;
+        }
+        String streamKey = String.format(RedisConstant.BUS_SUBSCRIBE_PREFIX, config.getEnv(), request.topic());
+        Map<byte[], byte[]> record = toRecord(request);
+        CompletableFuture<String> future = accumulator.append(streamKey, record);
+        if (null == future) {
+            // 累加器已关闭
+            xAdd(streamKey, record);
+            return CompletableFuture.completedFuture(null);
+        }
+        return future;
     }
 
     public void toSend(String streamKey, Request<?> request) {
-        stringRedisTemplate.opsForStream().add(Record.of(Func.toJson(request)).withStreamKey(streamKey));
+        xAdd(streamKey, toRecord(request));
+    }
+
+    /**
+     * 消息转换为Stream消息记录（按配置选择旧版单字段格式或多字段格式）
+     */
+    private Map<byte[], byte[]> toRecord(Request<?> request) {
+        if (config.getRedis().getPayloadRecord()) {
+            return Collections.singletonMap(PAYLOAD, compress(Func.encodeRequest(request, codec)));
+        }
+        return toFieldRecord(request);
+    }
+
+    /**
+     * 消息转换为多字段格式的Stream消息记录（不受payload-record配置影响，用于死信等内部存储）
+     *
+     * @param request 消息
+     * @return 消息记录
+     */
+    public Map<byte[], byte[]> toFieldRecord(Request<?> request) {
+        return RedisRecordUtil.toRecord(request, compress(RedisRecordUtil.encodeBody(request, codec)), dictionary);
+    }
+
+    /**
+     * 发送消息，消息体为已编码的字节（重新投递时无需再次序列化消息体）
+     *
+     * @param streamKey stream key
+     * @param header    消息头
+     * @param body      编码后的消息体
+     */
+    public void toSend(String streamKey, Request<?> header, byte[] body) {
+        xAdd(streamKey, RedisRecordUtil.toRecord(header, compress(body), dictionary));
+    }
+
+    /**
+     * 压缩，未开启压缩或未超过阈值时返回原数据
+     */
+    private byte[] compress(byte[] data) {
+        if (null == compressor) {
+            return data;
+        }
+        return CompressUtil.compress(data, compressor, config.getCompress().getThreshold());
+    }
+
+    /**
+     * 批量发送，所有消息按stream key分组后通过一次pipeline写入
+     */
+    @Override
+    protected void toSendBatch(List<SendResult> results) {
+        Map<String, List<SendResult>> groups = new LinkedHashMap<>();
+        Map<String, List<Map<byte[], byte[]>>> records = new LinkedHashMap<>();
+        for (SendResult result : results) {
+            Request<?> request = result.getRequest();
+            Map<byte[], byte[]> record;
+            try {
+                record = toRecord(request);
+            } catch (Exception e) {
+                result.setError(e);
+                continue;
+            }
+            String streamKey = String.format(RedisConstant.BUS_SUBSCRIBE_PREFIX, config.getEnv(), request.topic());
+            groups.computeIfAbsent(streamKey, k -> new ArrayList<>()).add(result);
+            records.computeIfAbsent(streamKey, k -> new ArrayList<>()).add(record);
+        }
+        if (groups.isEmpty()) {
+            return;
+        }
+        List<SendResult> sent = new ArrayList<>(results.size());
+        groups.values().forEach(sent::addAll);
+        List<Object> replies;
+        try {
+            replies = xAddPipelined(records);
+        } catch (Exception e) {
+            sent.forEach(result -> result.setError(e));
+            return;
+        }
+        for (int i = 0; i < sent.size(); i++) {
+            Object reply = replies.get(i);
+            if (reply instanceof Throwable) {
+                sent.get(i).setError((Throwable) reply);
+            } else if (reply instanceof RecordId) {
+                sent.get(i).setMsgId(((RecordId) reply).getValue());
+            }
+        }
+    }
+
+    /**
+     * 通过一次pipeline写入多个stream
+     *
+     * @param records stream key -> 消息记录
+     * @return 按分组顺序的每条记录结果，成功为RecordId，失败为异常
+     */
+    private List<Object> xAddPipelined(Map<String, List<Map<byte[], byte[]>>> records) {
+        try {
+            return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                records.forEach((streamKey, list) -> {
+                    byte[] key = streamKey.getBytes(StandardCharsets.UTF_8);
+                    for (Map<byte[], byte[]> record : list) {
+                        connection.streamCommands().xAdd(key, record);
+                    }
+                });
+                return null;
+            });
+        } catch (RedisPipelineException e) {
+            return e.getPipelineResult();
+        }
+    }
+
+    /**
+     * 通过一次pipeline执行命令，每条消息对应一条有返回值的命令（不可使用返回状态的命令，否则结果无法对应）
+     *
+     * @param results  发送结果，pipeline整体失败时全部记录为失败
+     * @param commands 命令
+     * @return 命令结果，单条命令失败时对应位置为异常；整体失败时为null
+     */
+    private List<Object> pipelined(List<SendResult> results, Consumer<RedisConnection> commands) {
+        try {
+            return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                commands.accept(connection);
+                return null;
+            });
+        } catch (RedisPipelineException e) {
+            return e.getPipelineResult();
+        } catch (Exception e) {
+            results.forEach(result -> result.setError(e));
+            return null;
+        }
+    }
+
+    private void xAdd(String streamKey, Map<byte[], byte[]> record) {
+        byte[] key = streamKey.getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> connection.streamCommands().xAdd(key, record));
     }
 
     @Override
     public void toSendDelayMessage(Request<?> request) {
-        // 计算延迟时间
-        Long timeMillis = System.currentTimeMillis() + (1000L * request.getDelayTime());
-        timeMillis = stringRedisTemplate.execute(zsetAddRedisScript,
-                Collections.singletonList(String.format(RedisConstant.BUS_DELAY_PREFIX, config.getEnv(), config.getServiceId())),  //当前服务下的zset
-                // 到当前时间之前的消息 + 推送数量
-                String.valueOf(timeMillis), Func.toJson(request));
+        String msgId = delayMsgId();
+        Long timeMillis = stringRedisTemplate.execute(zsetAddRedisScript, RedisSerializer.byteArray(), LONG_SERIALIZER,
+                //当前服务下的zset（+ 消息数据hash）
+                delayScriptKeys(msgId),
+                // 到期时间 + 消息编号 + 消息数据，或到期时间 + 完整消息
+                (Object[]) delayScriptArgs(request, msgId));
         // 重置延迟任务
         setNextTriggerTimeMillis(timeMillis);
     }
 
+    /**
+     * 延时消息脚本的key：当前服务下的zset，按消息编号存储时加上消息数据hash
+     *
+     * @param msgId 延时消息编号，zset成员为完整消息时为null
+     */
+    private List<String> delayScriptKeys(String msgId) {
+        String delayKey = String.format(RedisConstant.BUS_DELAY_PREFIX, config.getEnv(), config.getServiceId());
+        if (null == msgId) {
+            return Collections.singletonList(delayKey);
+        }
+        return Arrays.asList(delayKey, String.format(RedisConstant.BUS_DELAY_MSG_PREFIX, config.getEnv(), config.getServiceId()) + msgId);
+    }
+
+    private static byte[][] toBytes(List<String> keys) {
+        byte[][] bytes = new byte[keys.size()][];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    /**
+     * 计算到期时间，溢出时取Long.MAX_VALUE
+     *
+     * @param delayTime 延时时间，单位：秒
+     * @return 到期时间戳，单位：毫秒
+     */
+    private static long delayTimeMillis(long delayTime) {
+        try {
+            return Math.addExact(System.currentTimeMillis(), Math.multiplyExact(1000L, delayTime));
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 延时消息脚本的参数：
+     * 1. 按消息编号存储：到期时间 + 消息编号 + 消息数据，zset只保存消息编号，消息数据按Stream消息记录格式存储在hash中，到期后原样转移到延时消息流；
+     * 2. 否则：到期时间 + 完整消息（旧版格式，zset成员为完整消息）
+     */
+    private byte[][] delayScriptArgs(Request<?> request, String msgId) {
+        byte[] time = String.valueOf(delayTimeMillis(request.getDelayTime())).getBytes(StandardCharsets.UTF_8);
+        if (null == msgId) {
+            return new byte[][]{time, compress(Func.encodeRequest(request, codec))};
+        }
+        Map<byte[], byte[]> record = toRecord(request);
+        byte[][] args = new byte[2 + record.size() * 2][];
+        args[0] = time;
+        args[1] = msgId.getBytes(StandardCharsets.UTF_8);
+        int i = 2;
+        for (Map.Entry<byte[], byte[]> entry : record.entrySet()) {
+            args[i++] = entry.getKey();
+            args[i++] = entry.getValue();
+        }
+        return args;
+    }
+
+    /**
+     * 延时消息编号，每次投递单独生成：同一消息的多个订阅器、重试及死信重投各自独立，不会互相覆盖
+     *
+     * @return 编号，未开启按消息编号存储（redis.delay-msg-hash）时为null
+     */
+    private String delayMsgId() {
+        return config.getRedis().getDelayMsgHash() ? UUID.randomUUID().toString().replace("-", "") : null;
+    }
+
+    /**
+     * 批量发送延时消息，通过一次pipeline执行（先加载延时消息脚本，再逐条执行），完成后按最早到期时间重置延迟任务
+     */
+    @Override
+    protected void toSendDelayMessageBatch(List<SendResult> results) {
+        List<SendResult> sent = new ArrayList<>(results.size());
+        List<byte[][]> keysAndArgs = new ArrayList<>(results.size());
+        for (SendResult result : results) {
+            Request<?> request = result.getRequest();
+            try {
+                String msgId = delayMsgId();
+                byte[][] keys = toBytes(delayScriptKeys(msgId));
+                byte[][] args = delayScriptArgs(request, msgId);
+                byte[][] params = new byte[keys.length + args.length][];
+                System.arraycopy(keys, 0, params, 0, keys.length);
+                System.arraycopy(args, 0, params, keys.length, args.length);
+                keysAndArgs.add(params);
+                sent.add(result);
+            } catch (Exception e) {
+                result.setError(e);
+            }
+        }
+        if (sent.isEmpty()) {
+            return;
+        }
+        String sha = zsetAddRedisScript.getSha1();
+        byte[] script = zsetAddRedisScript.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        int numKeys = config.getRedis().getDelayMsgHash() ? 2 : 1;
+        List<Object> replies = pipelined(sent, connection -> {
+            // 同一连接按顺序执行，加载后即可按sha执行
+            connection.scriptingCommands().scriptLoad(script);
+            for (byte[][] params : keysAndArgs) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, numKeys, params);
+            }
+        });
+        if (null == replies) {
+            return;
+        }
+        Long nextTimeMillis = null;
+        for (int i = 0; i < sent.size(); i++) {
+            Object reply = replies.get(i + 1);
+            if (reply instanceof Throwable) {
+                sent.get(i).setError((Throwable) reply);
+            } else if (reply instanceof Long && (null == nextTimeMillis || (Long) reply < nextTimeMillis)) {
+                nextTimeMillis = (Long) reply;
+            }
+        }
+        // 重置延迟任务
+        setNextTriggerTimeMillis(nextTimeMillis);
+    }
+
+    /**
+     * 通过lettuce异步连接发送，不等待写入；未完成的消息数达到上限时等待。
+     * 非lettuce或未共享连接时同步发送
+     */
+    @Override
+    protected CompletableFuture<String> toSendAsync(Request<?> request) {
+        String streamKey = String.format(RedisConstant.BUS_SUBSCRIBE_PREFIX, config.getEnv(), request.topic());
+        Map<byte[], byte[]> record = toRecord(request);
+        if (null != accumulator) {
+            CompletableFuture<String> future = accumulator.append(streamKey, record);
+            if (null != future) {
+                return future;
+            }
+        }
+        byte[] key = streamKey.getBytes(StandardCharsets.UTF_8);
+        RedisClusterAsyncCommands<byte[], byte[]> async = asyncCommands();
+        if (null == async) {
+            RecordId recordId = stringRedisTemplate.execute((RedisCallback<RecordId>) connection -> connection.streamCommands().xAdd(key, record));
+            return CompletableFuture.completedFuture(null == recordId ? null : recordId.getValue());
+        }
+        acquireAsync();
+        try {
+            return async.xadd(key, record).toCompletableFuture().whenComplete((id, throwable) -> asyncPermits.release());
+        } catch (RuntimeException e) {
+            asyncPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 通过lettuce异步连接发送延时消息，完成后重置延迟任务
+     */
+    @Override
+    protected CompletableFuture<String> toSendDelayMessageAsync(Request<?> request) {
+        RedisClusterAsyncCommands<byte[], byte[]> async = asyncCommands();
+        if (null == async) {
+            toSendDelayMessage(request);
+            return CompletableFuture.completedFuture(null);
+        }
+        String msgId = delayMsgId();
+        byte[][] keys = toBytes(delayScriptKeys(msgId));
+        byte[][] args = delayScriptArgs(request, msgId);
+        acquireAsync();
+        try {
+            CompletableFuture<Long> future = async.<Long>evalsha(zsetAddRedisScript.getSha1(), ScriptOutputType.INTEGER, keys, args)
+                    .toCompletableFuture()
+                    .handle((timeMillis, throwable) -> {
+                        if (null == throwable) {
+                            return CompletableFuture.completedFuture(timeMillis);
+                        }
+                        if (isNoScript(throwable)) {
+                            // 脚本未加载，执行脚本内容（同时完成加载）
+                            return async.<Long>eval(zsetAddRedisScript.getScriptAsString(), ScriptOutputType.INTEGER, keys, args).toCompletableFuture();
+                        }
+                        CompletableFuture<Long> failed = new CompletableFuture<>();
+                        failed.completeExceptionally(throwable);
+                        return failed;
+                    })
+                    .thenCompose(Function.identity());
+            return future.whenComplete((timeMillis, throwable) -> asyncPermits.release())
+                    .thenApply(timeMillis -> {
+                        // 重置延迟任务
+                        setNextTriggerTimeMillis(timeMillis);
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            asyncPermits.release();
+            throw e;
+        }
+    }
+
+    private static boolean isNoScript(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && null != throwable.getCause() ? throwable.getCause() : throwable;
+        return cause instanceof RedisNoScriptException || (null != cause.getMessage() && cause.getMessage().startsWith("NOSCRIPT"));
+    }
+
+    /**
+     * 获取lettuce共享连接的异步命令，非lettuce或未共享连接时返回null（独占连接释放后会关闭，不能用于异步发送）
+     */
+    @SuppressWarnings("unchecked")
+    private RedisClusterAsyncCommands<byte[], byte[]> asyncCommands() {
+        RedisConnectionFactory factory = stringRedisTemplate.getRequiredConnectionFactory();
+        if (!LETTUCE_PRESENT || !(factory instanceof LettuceConnectionFactory) || !((LettuceConnectionFactory) factory).getShareNativeConnection()) {
+            return null;
+        }
+        // 共享连接在模板释放连接后不会关闭
+        Object nativeConnection = stringRedisTemplate.execute((RedisCallback<Object>) RedisConnection::getNativeConnection);
+        return nativeConnection instanceof RedisClusterAsyncCommands ? (RedisClusterAsyncCommands<byte[], byte[]>) nativeConnection : null;
+    }
+
+    /**
+     * 获取异步发送许可，未完成的消息数达到上限时等待
+     */
+    private void acquireAsync() {
+        try {
+            asyncPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventBusException("async send interrupted");
+        }
+    }
+
+    /**
+     * 关闭，发送累加器中全部缓冲的消息（容器销毁时调用）
+     */
+    public void shutdown() {
+        if (null != accumulator) {
+            accumulator.close();
+        }
+    }
+
     /**
      * 重置轮询时间
      */
@@ -1,15 +1,22 @@
 package com.anthonyzero.eventbus.provider;
 
+import com.anthonyzero.eventbus.constant.RedisConstant;
+import com.anthonyzero.eventbus.core.metadata.Request;
 import com.anthonyzero.eventbus.core.part.DeliveryEventBus;
+import com.anthonyzero.eventbus.core.utils.CompressUtil;
 import com.anthonyzero.eventbus.core.support.Listener;
 import com.anthonyzero.eventbus.prop.EventBusProperties;
 import com.anthonyzero.eventbus.provider.support.RedisListener;
 import com.anthonyzero.eventbus.provider.support.AbstractStreamListenerContainer;
+import com.anthonyzero.eventbus.provider.support.RedisRecordUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.connection.stream.Record;
+import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 及时消息订阅器实现
@@ -21,13 +28,16 @@ public class RedisMsgSubscribeContainer extends AbstractStreamListenerContainer
 
     private final List<RedisListener> subscribers;
     private final DeliveryEventBus deliveryEventBus;
+    private final RedisDictionary dictionary;
 
     public RedisMsgSubscribeContainer(StringRedisTemplate stringRedisTemplate,
                                       EventBusProperties busProperties,
                                       List<Listener> subscribers,
-                                      DeliveryEventBus deliveryEventBus) {
+                                      DeliveryEventBus deliveryEventBus,
+                                      RedisDictionary dictionary) {
         super(stringRedisTemplate, busProperties);
         this.deliveryEventBus = deliveryEventBus;
+        this.dictionary = dictionary;
         // subscribers (listener 原始 -> redisListener 包装)
         this.subscribers = RedisListener.redisListeners(subscribers, busProperties.getServiceId(), busProperties.getEnv());
     }
@@ -38,7 +48,45 @@ public class RedisMsgSubscribeContainer extends AbstractStreamListenerContainer
     }
 
     @Override
-    protected void deliver(RedisListener subscriber, Record<String, String> msg) {
-        deliveryEventBus.deliverTimely(subscriber, msg.getValue());
+    protected boolean accept(RedisListener subscriber, MapRecord<String, String, byte[]> msg) {
+        Map<String, byte[]> fields = msg.getValue();
+        // 旧版单字段格式需解析完整消息，投递时再判断
+        return RedisRecordUtil.isPayload(fields) || deliveryEventBus.accept(subscriber, RedisRecordUtil.toHeader(fields, dictionary));
+    }
+
+    @Override
+    protected void prefetch(RedisListener subscriber, List<MapRecord<String, String, byte[]>> msgs) {
+        List<Request<?>> headers = new ArrayList<>(msgs.size());
+        for (MapRecord<String, String, byte[]> msg : msgs) {
+            // 旧版单字段格式需解析完整消息，不预加载
+            if (!RedisRecordUtil.isPayload(msg.getValue())) {
+                headers.add(RedisRecordUtil.toHeader(msg.getValue(), dictionary));
+            }
+        }
+        deliveryEventBus.prefetchProcessed(subscriber, headers);
+    }
+
+    @Override
+    protected CompletableFuture<Void> deliver(RedisListener subscriber, MapRecord<String, String, byte[]> msg) {
+        Map<String, byte[]> fields = msg.getValue();
+        if (RedisRecordUtil.isPayload(fields)) {
+            return deliveryEventBus.deliverTimely(subscriber, CompressUtil.decompress(fields.get(RedisConstant.PAYLOAD)));
+        }
+        return deliveryEventBus.deliverTimely(subscriber, RedisRecordUtil.toHeader(fields, dictionary), CompressUtil.decompress(fields.get(RedisRecordUtil.BODY)));
+    }
+
+    @Override
+    protected CompletableFuture<Void> deliver(RedisListener subscriber, List<MapRecord<String, String, byte[]>> msgs) {
+        List<Request<?>> requests = new ArrayList<>(msgs.size());
+        for (MapRecord<String, String, byte[]> msg : msgs) {
+            Map<String, byte[]> fields = msg.getValue();
+            Request<?> request = RedisRecordUtil.isPayload(fields)
+                    ? deliveryEventBus.timelyRequest(subscriber, CompressUtil.decompress(fields.get(RedisConstant.PAYLOAD)))
+                    : deliveryEventBus.timelyRequest(subscriber, RedisRecordUtil.toHeader(fields, dictionary), CompressUtil.decompress(fields.get(RedisRecordUtil.BODY)));
+            if (null != request) {
+                requests.add(request);
+            }
+        }
+        return deliveryEventBus.deliverTimely(subscriber, requests);
     }
 }
@@ -0,0 +1,252 @@
+package com.anthonyzero.eventbus.provider;
+
+import com.anthonyzero.eventbus.core.exception.EventBusException;
+import com.anthonyzero.eventbus.core.utils.NamedThreadFactory;
+import com.anthonyzero.eventbus.prop.EventBusProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 消息发送累加器，及时消息按stream key写入缓冲区，由发送线程合并为一次pipeline写入。
+ * <p>
+ * 1. 任一stream缓冲的消息数达到batchSize，或最早缓冲的消息等待达到lingerMs时，发送全部缓冲的消息；
+ * 2. 缓冲及发送中的消息占用内存达到bufferMemory时，调用方最多等待maxBlockMs，超时抛出异常（maxBlockMs为0时直接抛出）；
+ * 3. 关闭时发送全部缓冲的消息，关闭后不再接收（由调用方直接发送）。
+ *
+ */
+@Slf4j
+public class RedisSendAccumulator {
+    private static final long CLOSE_TIMEOUT_MILLIS = 30 * 1000L;
+
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long bufferMemory;
+    private final long maxBlockNanos;
+    /**
+     * 批量写入：stream key -> 消息记录，返回按分组顺序的每条记录结果（RecordId或异常）
+     */
+    private final Function<Map<String, List<Map<byte[], byte[]>>>, List<Object>> writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 有可发送的消息
+     */
+    private final Condition ready = lock.newCondition();
+    /**
+     * 有释放的内存
+     */
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * stream key -> 缓冲的消息
+     */
+    private Map<String, List<Pending>> buffers = new LinkedHashMap<>();
+    /**
+     * 缓冲的消息数
+     */
+    private int count;
+    /**
+     * 是否有stream缓冲的消息数达到batchSize
+     */
+    private boolean full;
+    /**
+     * 最早缓冲的消息的写入时间
+     */
+    private long firstAppendNanos;
+    /**
+     * 缓冲及发送中的消息占用的内存，单位：字节
+     */
+    private long usedMemory;
+    private volatile boolean closed;
+    private final Thread sender;
+
+    public RedisSendAccumulator(EventBusProperties.Accumulator config,
+                                Function<Map<String, List<Map<byte[], byte[]>>>, List<Object>> writer) {
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.getLingerMs());
+        this.bufferMemory = config.getBufferMemory();
+        this.maxBlockNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxBlockMs());
+        this.writer = writer;
+        this.sender = new NamedThreadFactory("eventbus-accumulator-", true).newThread(this::run);
+        this.sender.start();
+    }
+
+    /**
+     * 写入缓冲区
+     *
+     * @param streamKey stream key
+     * @param record    消息记录
+     * @return 消息ID，累加器已关闭时返回null
+     * @throws EventBusException 缓冲区已满且等待超时
+     */
+    public CompletableFuture<String> append(String streamKey, Map<byte[], byte[]> record) {
+        Pending pending = new Pending(record, sizeOf(streamKey, record));
+        lock.lock();
+        try {
+            long remaining = maxBlockNanos;
+            // 缓冲区为空时总是接收，单条消息超过内存上限时不会永久等待
+            while (!closed && usedMemory > 0 && usedMemory + pending.size > bufferMemory) {
+                if (remaining <= 0) {
+                    throw new EventBusException("send buffer is full, bufferMemory=" + bufferMemory);
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            if (closed) {
+                return null;
+            }
+            List<Pending> buffer = buffers.computeIfAbsent(streamKey, k -> new ArrayList<>());
+            buffer.add(pending);
+            usedMemory += pending.size;
+            if (count++ == 0) {
+                firstAppendNanos = System.nanoTime();
+                ready.signal();
+            }
+            if (buffer.size() >= batchSize && !full) {
+                full = true;
+                ready.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventBusException("send buffer wait interrupted");
+        } finally {
+            lock.unlock();
+        }
+        return pending.future;
+    }
+
+    /**
+     * 关闭，发送全部缓冲的消息
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            ready.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            sender.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Map<String, List<Pending>> drained;
+            lock.lock();
+            try {
+                drained = awaitReady();
+            } catch (InterruptedException e) {
+                // 只在关闭时退出
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            if (null == drained) {
+                return;
+            }
+            flush(drained);
+        }
+    }
+
+    /**
+     * 等待可发送的消息并取出全部缓冲的消息，已关闭且无消息时返回null
+     */
+    private Map<String, List<Pending>> awaitReady() throws InterruptedException {
+        while (true) {
+            if (count == 0) {
+                if (closed) {
+                    return null;
+                }
+                ready.await();
+                continue;
+            }
+            long wait = lingerNanos - (System.nanoTime() - firstAppendNanos);
+            if (full || closed || wait <= 0) {
+                Map<String, List<Pending>> drained = buffers;
+                buffers = new LinkedHashMap<>();
+                count = 0;
+                full = false;
+                return drained;
+            }
+            ready.awaitNanos(wait);
+        }
+    }
+
+    /**
+     * 一次pipeline写入，逐条完成发送结果后释放内存
+     */
+    private void flush(Map<String, List<Pending>> drained) {
+        Map<String, List<Map<byte[], byte[]>>> records = new LinkedHashMap<>(drained.size() * 2);
+        List<Pending> sent = new ArrayList<>();
+        drained.forEach((streamKey, buffer) -> {
+            List<Map<byte[], byte[]>> list = new ArrayList<>(buffer.size());
+            for (Pending pending : buffer) {
+                list.add(pending.record);
+                sent.add(pending);
+            }
+            records.put(streamKey, list);
+        });
+        try {
+            List<Object> replies = writer.apply(records);
+            for (int i = 0; i < sent.size(); i++) {
+                Object reply = i < replies.size() ? replies.get(i) : null;
+                if (reply instanceof Throwable) {
+                    sent.get(i).future.completeExceptionally((Throwable) reply);
+                } else {
+                    sent.get(i).future.complete(reply instanceof RecordId ? ((RecordId) reply).getValue() : null);
+                }
+            }
+        } catch (Exception e) {
+            log.error("accumulator flush error, size={}", sent.size(), e);
+            sent.forEach(pending -> pending.future.completeExceptionally(e));
+        } finally {
+            long released = 0;
+            for (Pending pending : sent) {
+                released += pending.size;
+            }
+            lock.lock();
+            try {
+                usedMemory -= released;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static long sizeOf(String streamKey, Map<byte[], byte[]> record) {
+        long size = streamKey.length();
+        for (Map.Entry<byte[], byte[]> entry : record.entrySet()) {
+            size += entry.getKey().length + entry.getValue().length;
+        }
+        return size;
+    }
+
+    /**
+     * 缓冲的消息
+     */
+    private static final class Pending {
+        private final Map<byte[], byte[]> record;
+        private final long size;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        private Pending(Map<byte[], byte[]> record, long size) {
+            this.record = record;
+            this.size = size;
+        }
+    }
+}
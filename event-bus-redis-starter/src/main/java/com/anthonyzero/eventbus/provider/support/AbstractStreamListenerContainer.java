@@ -3,22 +3,30 @@ package com.anthonyzero.eventbus.provider.support;
 import com.anthonyzero.eventbus.core.base.Lifecycle;
 import com.anthonyzero.eventbus.core.constant.EventBusConstant;
 import com.anthonyzero.eventbus.core.metadata.MsgType;
+import com.anthonyzero.eventbus.core.support.CircuitBreaker;
+import com.anthonyzero.eventbus.core.utils.ExecutorUtil;
 import com.anthonyzero.eventbus.core.utils.Func;
 import com.anthonyzero.eventbus.core.utils.NamedThreadFactory;
 import com.anthonyzero.eventbus.core.utils.PollThreadPoolExecutor;
-import com.anthonyzero.eventbus.core.utils.WaitThreadPoolExecutor;
+import com.anthonyzero.eventbus.core.utils.StripedExecutor;
 import com.anthonyzero.eventbus.prop.EventBusProperties;
 import lombok.extern.slf4j.Slf4j;
 import lombok.var;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.stream.*;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.stream.StreamListener;
 import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 import org.springframework.util.Assert;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -34,7 +42,11 @@ public abstract class AbstractStreamListenerContainer implements Lifecycle {
     protected final StringRedisTemplate redisTemplate;
     protected final EventBusProperties config;
     protected ThreadPoolExecutor pollExecutor;
-    protected StreamMessageListenerContainer<String, ObjectRecord<String, String>> container;
+    protected StreamMessageListenerContainer<String, MapRecord<String, String, byte[]>> container;
+    /**
+     * 按消息键顺序投递的分发通道，未开启时为null
+     */
+    protected StripedExecutor lanes;
 
     protected AbstractStreamListenerContainer(StringRedisTemplate redisTemplate, EventBusProperties config) {
         this.redisTemplate = redisTemplate;
@@ -44,6 +56,10 @@ public abstract class AbstractStreamListenerContainer implements Lifecycle {
     @Override
     public void register() {
         if (null != container) {
+            if (null != lanes) {
+                // 分发通道已在停止时关闭
+                lanes = createLanes();
+            }
             container.start();
             return;
         }
@@ -53,10 +69,15 @@ public abstract class AbstractStreamListenerContainer implements Lifecycle {
             return;
         }
         boolean isBlock = config.getRedis().getPollBlock();
-        ThreadPoolExecutor[] executors = createExecutor(listeners, isBlock);
-        pollExecutor = executors[0];
+        ExecutorService[] executors = createExecutor(listeners, isBlock);
+        pollExecutor = (ThreadPoolExecutor) executors[0];
         // 阻塞轮询或延时任务轮询间隔都设置为2000ms
         MsgType type = listeners.get(0).getType();
+        // 及时消息按消息键顺序投递
+        Integer keyLanes = config.getRedis().getKeyLanes();
+        if (type.isTimely() && null != keyLanes && keyLanes > 0) {
+            lanes = createLanes();
+        }
         long pollTimeout = isBlock || type.isDelay() ? 2000 : 5;
         // 创建配置对象
         var options = StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
@@ -67,9 +88,10 @@ public abstract class AbstractStreamListenerContainer implements Lifecycle {
                 .errorHandler(t -> log.error("[Eventbus error] ", t))
                 // 超时时间，设置为0，表示不超时（超时后会抛出异常）
                 .pollTimeout(Duration.ofMillis(pollTimeout))
-                // 序列化器
-                .serializer(new StringRedisSerializer())
-                .targetType(String.class)
+                // 序列化器，消息数据按字节读取，由编解码器根据帧头解码
+                .keySerializer(StringRedisSerializer.UTF_8)
+                .hashKeySerializer(StringRedisSerializer.UTF_8)
+                .<String, byte[]>hashValueSerializer(RedisSerializer.byteArray())
                 .build();
         // 根据配置对象创建监听容器对象
         RedisConnectionFactory connectionFactory = redisTemplate.getConnectionFactory();
@@ -86,29 +108,28 @@ public abstract class AbstractStreamListenerContainer implements Lifecycle {
      * 创建线程池
      *
      * @param listeners listeners
-     * @return 线程池
+     * @return 线程池，非阻塞轮询时第二个为消息分发执行器（由eventbus.executor指定的实现创建）
      */
-    private ThreadPoolExecutor[] createExecutor(List<RedisListener> listeners, boolean isBlock) {
+    private ExecutorService[] createExecutor(List<RedisListener> listeners, boolean isBlock) {
         NamedThreadFactory factory = new NamedThreadFactory(this.getClass().getSimpleName() + "-");
         // 创建线程池
         int concurrency = listeners.stream().map(RedisListener::getConcurrency).reduce(Integer::sum).orElse(1);
         // 根据配置创建不同的线程池
         if (isBlock) {
             ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 1, TimeUnit.MINUTES, new LinkedBlockingDeque<>(), factory);
-            return new ThreadPoolExecutor[]{executor};
+            return new ExecutorService[]{executor};
         } else {
             //默认非阻塞
             EventBusProperties.RedisProperties redis = config.getRedis();
-            int poolSize = Math.min(concurrency, redis.getPollThreadPoolSize()); //min最小值
 
             // 拉取消息的线程池
             ThreadPoolExecutor executor = new PollThreadPoolExecutor(1, 1, 1,
                     TimeUnit.MINUTES, new LinkedBlockingDeque<>(concurrency), factory);
 
-            // 分发消息的工作线程池
-            ThreadPoolExecutor excExecutor = new WaitThreadPoolExecutor(1, poolSize, redis.getPollThreadKeepAliveTime(),
-                    TimeUnit.SECONDS, new LinkedBlockingDeque<>(concurrency), new NamedThreadFactory(this.getClass().getSimpleName() + ".exc-"));
-            return new ThreadPoolExecutor[]{executor, excExecutor};
+            // 分发消息的执行器
+            ExecutorService excExecutor = ExecutorUtil.getProvider(config.getExecutor()).createDispatchExecutor(
+                    this.getClass().getSimpleName() + ".exc-", concurrency, redis.getPollThreadPoolSize(), redis.getPollThreadKeepAliveTime());
+            return new ExecutorService[]{executor, excExecutor};
         }
     }
 
@@ -118,17 +139,156 @@ public abstract class AbstractStreamListenerContainer implements Lifecycle {
      * @param container 监听容器
      * @param listeners listeners
      */
-    private void createConsumer(StreamMessageListenerContainer<String, ObjectRecord<String, String>> container, List<RedisListener> listeners) {
+    private void createConsumer(StreamMessageListenerContainer<String, MapRecord<String, String, byte[]>> container, List<RedisListener> listeners) {
         String hostAddress = Func.getHostAddress();
         // 初始化组
         createGroup(listeners);
         for (RedisListener listener : listeners) {
-            Func.pollRun(listener.getConcurrency(), () ->
+            // 批量订阅器整批接收，其他逐条接收
+            StreamListener<String, MapRecord<String, String, byte[]>> streamListener;
+            int consumers = listener.getConcurrency();
+            if (isBatch(listener)) {
+                streamListener = (BatchStreamListener<String, MapRecord<String, String, byte[]>>) msgs -> deliverMsg(listener, msgs);
+            } else if (null != lanes) {
+                // 按消息键分配通道，只使用一个消费者拉取，保证相同键的消息顺序
+                streamListener = (KeyedStreamListener<String, MapRecord<String, String, byte[]>>) msgs -> deliverKeyed(listener, msgs);
+                consumers = 1;
+            } else {
+                // 逐条投递，不投递（被过滤）的消息统一确认
+                streamListener = (BatchStreamListener<String, MapRecord<String, String, byte[]>>) msgs -> deliverMsgs(listener, msgs);
+            }
+            CircuitBreaker breaker = listener.getCircuitBreaker();
+            if (null != breaker && container instanceof XDefaultStreamMessageListenerContainer) {
+                // 熔断打开时不拉取该订阅器的消息
+                XDefaultStreamMessageListenerContainer<String, MapRecord<String, String, byte[]>> pausable =
+                        (XDefaultStreamMessageListenerContainer<String, MapRecord<String, String, byte[]>>) container;
+                StreamMessageListenerContainer.StreamReadRequest<String> request = StreamMessageListenerContainer.StreamReadRequest
+                        .builder(StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed()))
+                        .consumer(Consumer.from(listener.getGroup(), hostAddress))
+                        .autoAcknowledge(false)
+                        .build();
+                Func.pollRun(consumers, () -> pausable.register(request, streamListener, breaker::allowRead));
+                continue;
+            }
+            if (null != breaker) {
+                log.warn("Eventbus circuit breaker of {} is not supported with redis.poll-block=true, messages are polled while the breaker is open",
+                        listener.getGroup());
+            }
+            Func.pollRun(consumers, () ->
                     container.receive(
                             Consumer.from(listener.getGroup(), hostAddress),
                             StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed()),
                             // 使用监听容器对象开始监听消费（使用的是手动确认方式）
-                            msg -> deliverMsg(listener, msg)));
+                            streamListener));
+        }
+    }
+
+    /**
+     * 创建按消息键顺序投递的分发通道
+     */
+    private StripedExecutor createLanes() {
+        return new StripedExecutor(this.getClass().getSimpleName() + ".lane-", config.getRedis().getKeyLanes(), config.getMsgBatchSize());
+    }
+
+    private boolean isBatch(RedisListener listener) {
+        return null != listener.getTrigger() && listener.getTrigger().isBatch();
+    }
+
+    /**
+     * 分发通道的键：消息键，无消息键（含旧版单字段格式）时为消息ID
+     */
+    private String laneKey(MapRecord<String, String, byte[]> msg) {
+        byte[] key = msg.getValue().get(RedisRecordUtil.KEY);
+        return null == key ? msg.getId().getValue() : new String(key, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 批量消费消息，整批处理完成后一次确认（单条XACK命令）
+     *
+     * @param listener listeners
+     * @param msgs     msgs
+     */
+    private void deliverMsg(RedisListener listener, List<MapRecord<String, String, byte[]>> msgs) {
+        String oldName = Func.reThreadName(EventBusConstant.THREAD_NAME);
+        try {
+            CompletableFuture<Void> future = deliver(listener, msgs);
+            RecordId[] ids = msgs.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+            acknowledge(listener, future, ids);
+        } catch (Exception e) {
+            log.error("[Eventbus error] ", e);
+        } finally {
+            // 恢复线程名称
+            Thread.currentThread().setName(oldName);
+        }
+    }
+
+    /**
+     * 逐条消费消息，不投递给订阅者（非本订阅者或被过滤）的消息不解析消息体、不触发拦截器，通过一条XACK命令统一确认
+     *
+     * @param listener listeners
+     * @param msgs     msgs
+     */
+    private void deliverMsgs(RedisListener listener, List<MapRecord<String, String, byte[]>> msgs) {
+        dispatch(listener, msgs, msg -> deliverMsg(listener, msg));
+    }
+
+    /**
+     * 按消息键分配到分发通道，同一批拉取的消息统一预取及确认
+     *
+     * @param listener listeners
+     * @param msgs     按拉取顺序的消息
+     */
+    private void deliverKeyed(RedisListener listener, List<MapRecord<String, String, byte[]>> msgs) {
+        dispatch(listener, msgs, msg -> lanes.execute(laneKey(msg), () -> deliverInLane(listener, msg)));
+    }
+
+    /**
+     * 分发单次拉取的消息：投递的消息整批预取后逐条分发，不投递的消息通过一条XACK命令统一确认
+     *
+     * @param listener listeners
+     * @param msgs     msgs
+     * @param delivery 单条消息分发
+     */
+    private void dispatch(RedisListener listener, List<MapRecord<String, String, byte[]>> msgs,
+                          java.util.function.Consumer<MapRecord<String, String, byte[]>> delivery) {
+        List<MapRecord<String, String, byte[]>> accepted = new ArrayList<>(msgs.size());
+        List<RecordId> skipped = null;
+        for (MapRecord<String, String, byte[]> msg : msgs) {
+            if (accept(listener, msg)) {
+                accepted.add(msg);
+                continue;
+            }
+            if (null == skipped) {
+                skipped = new ArrayList<>(msgs.size());
+            }
+            skipped.add(msg.getId());
+        }
+        if (!accepted.isEmpty()) {
+            try {
+                prefetch(listener, accepted);
+            } catch (Exception e) {
+                log.error("[Eventbus error] ", e);
+            }
+            accepted.forEach(delivery);
+        }
+        if (null != skipped) {
+            acknowledge(listener, skipped.toArray(new RecordId[0]));
+        }
+    }
+
+    /**
+     * 在分发通道中消费消息，等待投递完成（异步订阅方法的结果完成、本地重试完成）后才执行同一通道的下一条消息，
+     * 保证相同键的消息按顺序处理完成
+     *
+     * @param listener listeners
+     * @param msg      msg
+     */
+    private void deliverInLane(RedisListener listener, MapRecord<String, String, byte[]> msg) {
+        try {
+            deliverMsg(listener, msg).join();
+        } catch (Exception e) {
+            // 投递异常已记录，消息未确认，由待确认消息重发任务处理
+            log.debug("[Eventbus] lane deliver completed exceptionally, id={}", msg.getId(), e);
         }
     }
 
@@ -137,23 +297,65 @@ public abstract class AbstractStreamListenerContainer implements Lifecycle {
      *
      * @param listener listeners
      * @param msg      msg
+     * @return 投递完成
      */
-    private void deliverMsg(RedisListener listener, Record<String, String> msg) {
+    private CompletableFuture<Void> deliverMsg(RedisListener listener, MapRecord<String, String, byte[]> msg) {
         String oldName = Func.reThreadName(EventBusConstant.THREAD_NAME);
         try {
             //正式开始投递入口
-            deliver(listener, msg); //(业务里会try failHandle)
+            CompletableFuture<Void> future = deliver(listener, msg); //(业务里会try failHandle)
             //ack (pel) 消息就会从消费组的PEL中移除。
-            redisTemplate.opsForStream().acknowledge(listener.getStreamKey(), listener.getGroup(), msg.getId());
+            acknowledge(listener, future, msg.getId());
             //如果系统异常没有ack, RedisPendingMsgResendTask会拿出消费组里的PEL数据重新send一次且ACK 可能性：eventbus错误或者系统到这执行error
+            return future;
         } catch (Exception e) {
             log.error("[Eventbus error] ", e);
+            return CompletableFuture.completedFuture(null);
         } finally {
             // 恢复线程名称
             Thread.currentThread().setName(oldName);
         }
     }
 
+    /**
+     * 确认消息
+     *
+     * @param listener listener
+     * @param ids      消息ID
+     */
+    private void acknowledge(RedisListener listener, RecordId... ids) {
+        try {
+            redisTemplate.opsForStream().acknowledge(listener.getStreamKey(), listener.getGroup(), ids);
+        } catch (Exception e) {
+            log.error("[Eventbus error] ", e);
+        }
+    }
+
+    /**
+     * 投递完成后确认消息，异步订阅方法在其结果完成后确认，不占用接收线程；
+     * 投递异常完成（不可恢复的错误）时不确认，由未确认消息重发处理
+     *
+     * @param listener listener
+     * @param future   投递完成
+     * @param ids      消息ID
+     */
+    private void acknowledge(RedisListener listener, CompletableFuture<Void> future, RecordId... ids) {
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            redisTemplate.opsForStream().acknowledge(listener.getStreamKey(), listener.getGroup(), ids);
+            return;
+        }
+        future.whenComplete((v, throwable) -> {
+            if (null != throwable) {
+                return;
+            }
+            try {
+                redisTemplate.opsForStream().acknowledge(listener.getStreamKey(), listener.getGroup(), ids);
+            } catch (Exception e) {
+                log.error("[Eventbus error] ", e);
+            }
+        });
+    }
+
     /**
      * 获取消费者
      *
@@ -161,19 +363,55 @@ public abstract class AbstractStreamListenerContainer implements Lifecycle {
      */
     protected abstract List<RedisListener> getListeners();
 
+    /**
+     * 消息是否投递给订阅者，只读取消息头；不投递的消息直接确认，默认全部投递
+     *
+     * @param subscriber 消费者
+     * @param msg        消息
+     * @return true：投递
+     */
+    protected boolean accept(RedisListener subscriber, MapRecord<String, String, byte[]> msg) {
+        return true;
+    }
+
+    /**
+     * 逐条投递前，按整批消息预加载投递所需的数据（如消费幂等记录），默认不处理
+     *
+     * @param subscriber 消费者
+     * @param msgs       本批投递的消息
+     */
+    protected void prefetch(RedisListener subscriber, List<MapRecord<String, String, byte[]>> msgs) {
+    }
+
     /**
      * 消费消息
      *
      * @param subscriber 消费者
      * @param msg        消息体
+     * @return 投递完成，异步订阅方法在其结果完成后完成
+     */
+    protected abstract CompletableFuture<Void> deliver(RedisListener subscriber, MapRecord<String, String, byte[]> msg);
+
+    /**
+     * 批量消费消息，默认逐条消费
+     *
+     * @param subscriber 消费者
+     * @param msgs       消息
+     * @return 投递完成
      */
-    protected abstract void deliver(RedisListener subscriber, Record<String, String> msg);
+    protected CompletableFuture<Void> deliver(RedisListener subscriber, List<MapRecord<String, String, byte[]>> msgs) {
+        return CompletableFuture.allOf(msgs.stream().map(msg -> deliver(subscriber, msg)).toArray(CompletableFuture[]::new));
+    }
 
     @Override
     public void destroy() {
         if (null != container) {
             container.stop();
         }
+        // 分发通道关闭，已分配的消息继续处理
+        if (null != lanes) {
+            lanes.shutdown();
+        }
 
         // 轮询线程关闭
         if (pollExecutor instanceof PollThreadPoolExecutor) {
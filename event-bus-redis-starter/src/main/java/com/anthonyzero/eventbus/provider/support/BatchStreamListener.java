@@ -0,0 +1,28 @@
+package com.anthonyzero.eventbus.provider.support;
+
+import org.springframework.data.redis.connection.stream.Record;
+import org.springframework.data.redis.stream.StreamListener;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量消息监听，非阻塞轮询时一次接收单次拉取的全部消息；
+ * 阻塞轮询（spring默认监听容器）逐条接收
+ *
+ */
+@FunctionalInterface
+interface BatchStreamListener<K, V extends Record<K, ?>> extends StreamListener<K, V> {
+
+    /**
+     * 批量接收消息
+     *
+     * @param messages 消息
+     */
+    void onMessages(List<V> messages);
+
+    @Override
+    default void onMessage(V message) {
+        onMessages(Collections.singletonList(message));
+    }
+}
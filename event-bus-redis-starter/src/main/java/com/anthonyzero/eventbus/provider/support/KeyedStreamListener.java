@@ -0,0 +1,29 @@
+package com.anthonyzero.eventbus.provider.support;
+
+import org.springframework.data.redis.connection.stream.Record;
+import org.springframework.data.redis.stream.StreamListener;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按消息键分发的消息监听，自行将消息分配到分发通道；
+ * 非阻塞轮询时在拉取线程中一次接收单次拉取的全部消息，不再交由分发执行器，按拉取顺序分配，保证相同键的消息提交顺序；
+ * 阻塞轮询（spring默认监听容器）逐条接收
+ *
+ */
+@FunctionalInterface
+interface KeyedStreamListener<K, V extends Record<K, ?>> extends StreamListener<K, V> {
+
+    /**
+     * 按拉取顺序接收消息
+     *
+     * @param messages 消息
+     */
+    void onMessages(List<V> messages);
+
+    @Override
+    default void onMessage(V message) {
+        onMessages(Collections.singletonList(message));
+    }
+}
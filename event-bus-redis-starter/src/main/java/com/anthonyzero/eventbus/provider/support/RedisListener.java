@@ -28,6 +28,10 @@ public class RedisListener extends Listener {
     public RedisListener(Listener subscriber, String subscribePrefix, String serviceId, String prefix) {
         super(subscriber.getServiceId(), subscriber.getCode(),
                 subscriber.getConcurrency(), subscriber.getType(), subscriber.getTrigger(), subscriber.getFailTrigger(), subscriber.getPolling());
+        setRouteId(subscriber.getRouteId());
+        setMaxInFlight(subscriber.getMaxInFlight());
+        setFilter(subscriber.getFilter());
+        setCircuitBreaker(subscriber.getCircuitBreaker());
         this.streamKey = String.format(subscribePrefix, prefix, subscriber.getTopic());
         //this.group = null != subscriber.getTrigger() ? subscriber.getTrigger().getDeliverId() : subscriber.getServiceId();
         this.group = serviceId; //应用serviceId
@@ -0,0 +1,188 @@
+package com.anthonyzero.eventbus.provider.support;
+
+import com.anthonyzero.eventbus.constant.RedisConstant;
+import com.anthonyzero.eventbus.core.metadata.LazyRequest;
+import com.anthonyzero.eventbus.core.metadata.MsgType;
+import com.anthonyzero.eventbus.core.metadata.Request;
+import com.anthonyzero.eventbus.core.support.spi.ICodec;
+import com.anthonyzero.eventbus.core.utils.Assert;
+import com.anthonyzero.eventbus.core.utils.Func;
+import com.anthonyzero.eventbus.provider.RedisDictionary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stream消息记录格式：消息头各字段单独存储，消息体编码后存储在body字段，
+ * 路由、重试计数等处理只需读取消息头，无需解析消息体；
+ * 兼容旧版单字段格式（payload字段存储完整消息）
+ */
+public final class RedisRecordUtil {
+    private RedisRecordUtil() {
+    }
+
+    /**
+     * 标识字段 -> 字典编号字段
+     */
+    private static final Map<String, String> REFS = new HashMap<>(4);
+
+    public static final String SERVICE_ID = "serviceId";
+    public static final String CODE = "code";
+    public static final String REQUEST_ID = "requestId";
+    public static final String DELIVER_ID = "deliverId";
+    public static final String DELIVER_COUNT = "deliverCount";
+    public static final String TYPE = "type";
+    public static final String DELAY_TIME = "delayTime";
+    public static final String KEY = "key";
+    public static final String BODY = "body";
+    /**
+     * 自定义消息头字段前缀
+     */
+    public static final String HEADER_PREFIX = "h.";
+    /**
+     * 字典编号字段，对应serviceId、code、deliverId
+     */
+    public static final String SERVICE_ID_REF = "sid";
+    public static final String CODE_REF = "cid";
+    public static final String DELIVER_ID_REF = "did";
+
+    static {
+        REFS.put(SERVICE_ID, SERVICE_ID_REF);
+        REFS.put(CODE, CODE_REF);
+        REFS.put(DELIVER_ID, DELIVER_ID_REF);
+    }
+
+    /**
+     * 消息体编码
+     *
+     * @param request 消息
+     * @param codec   消息体编解码器
+     * @return 编码后的消息体
+     */
+    public static byte[] encodeBody(Request<?> request, ICodec codec) {
+        // 消息体未被重新赋值时直接使用原始字节
+        if (request instanceof LazyRequest && null != ((LazyRequest<?>) request).rawBody()) {
+            return ((LazyRequest<?>) request).rawBody();
+        }
+        return null == request.getBody() ? null : Func.encodeBody(request.getBody(), codec);
+    }
+
+    /**
+     * 消息头及编码后的消息体转换为Stream消息记录
+     *
+     * @param header     消息头
+     * @param body       编码后的消息体
+     * @param dictionary 标识字典，为null时标识按原值写入
+     * @return 消息记录
+     */
+    public static Map<byte[], byte[]> toRecord(Request<?> header, byte[] body, RedisDictionary dictionary) {
+        Map<byte[], byte[]> record = new LinkedHashMap<>(16);
+        if (null == dictionary) {
+            put(record, SERVICE_ID, header.getServiceId());
+            put(record, CODE, header.getCode());
+            put(record, DELIVER_ID, header.getDeliverId());
+        } else {
+            put(record, SERVICE_ID_REF, null == header.getServiceId() ? null : dictionary.encode(header.getServiceId()));
+            put(record, CODE_REF, null == header.getCode() ? null : dictionary.encode(header.getCode()));
+            put(record, DELIVER_ID_REF, null == header.getDeliverId() ? null : dictionary.encode(header.getDeliverId()));
+        }
+        put(record, REQUEST_ID, header.getRequestId());
+        put(record, DELIVER_COUNT, header.getDeliverCount());
+        put(record, TYPE, null == header.getType() ? null : header.getType().name());
+        put(record, DELAY_TIME, header.getDelayTime());
+        put(record, KEY, header.getKey());
+        if (null != header.getHeaders()) {
+            header.getHeaders().forEach((name, value) -> put(record, HEADER_PREFIX + name, value));
+        }
+        if (null != body) {
+            record.put(bytes(BODY), body);
+        }
+        return record;
+    }
+
+    /**
+     * 是否为旧版单字段格式
+     *
+     * @param fields 消息记录
+     * @return true：旧版格式
+     */
+    public static boolean isPayload(Map<String, byte[]> fields) {
+        return fields.containsKey(RedisConstant.PAYLOAD);
+    }
+
+    /**
+     * 读取消息头（不含消息体）
+     *
+     * @param fields     消息记录
+     * @param dictionary 标识字典
+     * @return 消息头
+     */
+    public static Request<Object> toHeader(Map<String, byte[]> fields, RedisDictionary dictionary) {
+        Request<Object> header = new Request<>();
+        header.setServiceId(get(fields, SERVICE_ID, dictionary));
+        header.setCode(get(fields, CODE, dictionary));
+        header.setRequestId(get(fields, REQUEST_ID));
+        header.setDeliverId(get(fields, DELIVER_ID, dictionary));
+        String deliverCount = get(fields, DELIVER_COUNT);
+        header.setDeliverCount(null == deliverCount ? null : Integer.valueOf(deliverCount));
+        String type = get(fields, TYPE);
+        header.setType(null == type ? MsgType.TIMELY : MsgType.valueOf(type));
+        String delayTime = get(fields, DELAY_TIME);
+        header.setDelayTime(null == delayTime ? null : Long.valueOf(delayTime));
+        header.setKey(get(fields, KEY));
+        for (Map.Entry<String, byte[]> entry : fields.entrySet()) {
+            if (entry.getKey().startsWith(HEADER_PREFIX)) {
+                if (null == header.getHeaders()) {
+                    header.setHeaders(new HashMap<>(8));
+                }
+                header.getHeaders().put(entry.getKey().substring(HEADER_PREFIX.length()), new String(entry.getValue(), StandardCharsets.UTF_8));
+            }
+        }
+        return header;
+    }
+
+    /**
+     * 字节字段名转换为字符串字段名
+     *
+     * @param fields 消息记录
+     * @return 消息记录
+     */
+    public static Map<String, byte[]> toFields(Map<byte[], byte[]> fields) {
+        Map<String, byte[]> result = new HashMap<>(fields.size() * 2);
+        fields.forEach((k, v) -> result.put(new String(k, StandardCharsets.UTF_8), v));
+        return result;
+    }
+
+    private static void put(Map<byte[], byte[]> record, String field, Object value) {
+        if (null != value) {
+            record.put(bytes(field), bytes(value.toString()));
+        }
+    }
+
+    /**
+     * 读取标识字段，按字典编号写入时从字典中获取原值
+     */
+    private static String get(Map<String, byte[]> fields, String field, RedisDictionary dictionary) {
+        String value = get(fields, field);
+        if (null != value) {
+            return value;
+        }
+        String id = get(fields, REFS.get(field));
+        if (null == id) {
+            return null;
+        }
+        Assert.notNull(dictionary, "dictionary not configured, field: " + field);
+        return dictionary.decode(id);
+    }
+
+    private static String get(Map<String, byte[]> fields, String field) {
+        byte[] value = fields.get(field);
+        return null == value ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -32,7 +32,9 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
 
 /**
  * Simple {@link Executor} based {@link StreamMessageListenerContainer} implementation for running {@link Task tasks} to
@@ -59,6 +61,10 @@ class XDefaultStreamMessageListenerContainer<K, V extends Record<K, ?>> implemen
     private final StreamMessageListenerContainerOptions<K, V> containerOptions;
 
     private final List<Subscription> subscriptions = new ArrayList<>();
+    /**
+     * 暂停拉取的轮次统计，所有拉取任务共用一个拉取线程
+     */
+    private final PauseGate pauseGate;
 
     private boolean running = false;
 
@@ -81,6 +87,7 @@ class XDefaultStreamMessageListenerContainer<K, V extends Record<K, ?>> implemen
         this.readOptions = getStreamReadOptions(containerOptions);
         this.template = createRedisTemplate(connectionFactory, containerOptions);
         this.containerOptions = containerOptions;
+        this.pauseGate = new PauseGate(Math.max(1, containerOptions.getPollTimeout().toMillis()));
 
         if (containerOptions.getHashMapper() != null) {
             this.streamOperations = this.template.opsForStream(containerOptions.getHashMapper());
@@ -210,12 +217,29 @@ class XDefaultStreamMessageListenerContainer<K, V extends Record<K, ?>> implemen
         return doRegister(getReadTask(streamRequest, listener));
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * 注册可暂停拉取的消费者，readable为false时本次不拉取消息
+     *
+     * @param streamRequest 拉取请求
+     * @param listener      消息监听
+     * @param readable      是否允许拉取
+     * @return 订阅
+     */
+    public Subscription register(StreamReadRequest<K> streamRequest, StreamListener<K, V> listener, BooleanSupplier readable) {
+        return doRegister(getReadTask(streamRequest, listener, readable));
+    }
+
     private XStreamPollTask<K, V> getReadTask(StreamReadRequest<K> streamRequest, StreamListener<K, V> listener) {
+        return getReadTask(streamRequest, listener, () -> true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private XStreamPollTask<K, V> getReadTask(StreamReadRequest<K> streamRequest, StreamListener<K, V> listener, BooleanSupplier readable) {
 
         BiFunction<K, ReadOffset, List<? extends Record<?, ?>>> readFunction = getReadFunction(streamRequest);
 
-        return new XStreamPollTask<>(streamRequest, listener, errorHandler, (BiFunction) readFunction, taskExcExecutor);
+        return new XStreamPollTask<>(streamRequest, listener, errorHandler, (BiFunction) readFunction, taskExcExecutor,
+                readable, pauseGate);
     }
 
     @SuppressWarnings("unchecked")
@@ -252,6 +276,7 @@ class XDefaultStreamMessageListenerContainer<K, V extends Record<K, ?>> implemen
         synchronized (lifecycleMonitor) {
 
             this.subscriptions.add(subscription);
+            pauseGate.tasks = subscriptions.size();
 
             if (this.running) {
                 taskExecutor.execute(task);
@@ -277,6 +302,39 @@ class XDefaultStreamMessageListenerContainer<K, V extends Record<K, ?>> implemen
                 }
 
                 subscriptions.remove(subscription);
+                pauseGate.tasks = subscriptions.size();
+            }
+        }
+    }
+
+    /**
+     * 暂停拉取的任务直接跳过本次拉取，不占用共享的拉取线程；
+     * 连续一整轮的任务都跳过（全部暂停）时才等待一个拉取超时时长，避免拉取线程空转
+     */
+    static class PauseGate {
+
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final long pauseMillis;
+        private volatile int tasks;
+
+        PauseGate(long pauseMillis) {
+            this.pauseMillis = pauseMillis;
+        }
+
+        /**
+         * 任务执行了拉取
+         */
+        void read() {
+            skipped.set(0);
+        }
+
+        /**
+         * 任务跳过了拉取
+         */
+        void skip() throws InterruptedException {
+            if (skipped.incrementAndGet() >= tasks) {
+                skipped.set(0);
+                Thread.sleep(pauseMillis);
             }
         }
     }
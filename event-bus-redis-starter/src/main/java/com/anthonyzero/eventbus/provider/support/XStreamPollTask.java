@@ -33,6 +33,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
 import java.util.function.Predicate;
 
 /**
@@ -49,12 +50,22 @@ class XStreamPollTask<K, V extends Record<K, ?>> implements Task {
     private final ErrorHandler errorHandler;
     private final Predicate<Throwable> cancelSubscriptionOnError;
     private final BiFunction<K, ReadOffset, List<V>> readFunction;
+    private final BooleanSupplier readable;
+    private final XDefaultStreamMessageListenerContainer.PauseGate pauseGate;
 
     private final PollState pollState;
     private volatile boolean isInEventLoop = false;
 
     XStreamPollTask(StreamReadRequest<K> streamRequest, StreamListener<K, V> listener, ErrorHandler errorHandler,
                     BiFunction<K, ReadOffset, List<V>> readFunction, Executor taskExcExecutor) {
+        this(streamRequest, listener, errorHandler, readFunction, taskExcExecutor, () -> true, null);
+    }
+
+    XStreamPollTask(StreamReadRequest<K> streamRequest, StreamListener<K, V> listener, ErrorHandler errorHandler,
+                    BiFunction<K, ReadOffset, List<V>> readFunction, Executor taskExcExecutor,
+                    BooleanSupplier readable, XDefaultStreamMessageListenerContainer.PauseGate pauseGate) {
+        this.readable = readable;
+        this.pauseGate = pauseGate;
         this.taskExcExecutor = taskExcExecutor;
         this.request = streamRequest;
         this.listener = listener;
@@ -138,9 +149,37 @@ class XStreamPollTask<K, V extends Record<K, ?>> implements Task {
 
                 // allow interruption
                 Thread.sleep(0);
+                if (!readable.getAsBoolean()) {
+                    // 暂停拉取（如订阅器熔断），跳过本次拉取，不阻塞共享拉取线程上的其他订阅器
+                    if (null != pauseGate) {
+                        pauseGate.skip();
+                    }
+                    cancel();
+                    return;
+                }
+                if (null != pauseGate) {
+                    pauseGate.read();
+                }
                 List<V> read = readFunction.apply(key, ReadOffset.lastConsumed());
+                if (listener instanceof KeyedStreamListener) {
+                    // 按拉取顺序分配到消息键对应的通道
+                    if (!read.isEmpty()) {
+                        ((KeyedStreamListener<K, V>) listener).onMessages(read);
+                        pollState.updateReadOffset(read.get(read.size() - 1).getId().getValue());
+                    }
+                    cancel();
+                    return;
+                }
                 // core work
                 this.taskExcExecutor.execute(() -> {
+                    if (listener instanceof BatchStreamListener) {
+                        // 批量接收本次拉取的全部消息
+                        if (!read.isEmpty()) {
+                            ((BatchStreamListener<K, V>) listener).onMessages(read);
+                            pollState.updateReadOffset(read.get(read.size() - 1).getId().getValue());
+                        }
+                        return;
+                    }
                     for (V message : read) {
 
                         listener.onMessage(message);
@@ -8,18 +8,24 @@ import com.anthonyzero.eventbus.core.metadata.Request;
 import com.anthonyzero.eventbus.core.part.TaskRegistry;
 import com.anthonyzero.eventbus.core.support.Listener;
 import com.anthonyzero.eventbus.core.support.task.CronTask;
+import com.anthonyzero.eventbus.core.utils.CompressUtil;
 import com.anthonyzero.eventbus.core.utils.Func;
 import com.anthonyzero.eventbus.provider.RLock;
+import com.anthonyzero.eventbus.provider.RedisDictionary;
 import com.anthonyzero.eventbus.provider.RedisMsgSender;
+import com.anthonyzero.eventbus.provider.support.RedisRecordUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Range;
 import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.util.CollectionUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -36,6 +42,7 @@ public class RedisPendingMsgResendTask implements Runnable, Lifecycle {
     private final EventBusProperties eventBusProperties;
     private final RLock rLock;
     private final RedisMsgSender msgSender;
+    private final RedisDictionary dictionary;
     private final StringRedisTemplate stringRedisTemplate;
     /**
      * 延时消息流key
@@ -48,13 +55,15 @@ public class RedisPendingMsgResendTask implements Runnable, Lifecycle {
     public RedisPendingMsgResendTask(StringRedisTemplate stringRedisTemplate, TaskRegistry taskRegistry,
                                      EventBusProperties eventBusProperties, List<Listener> subscribers,
                                      RLock rLock,
-                                     RedisMsgSender msgSender) {
+                                     RedisMsgSender msgSender,
+                                     RedisDictionary dictionary) {
         // 一分钟执行一次,这里选择每分钟的35秒执行，是为了避免整点任务过多的问题
         this.stringRedisTemplate = stringRedisTemplate;
         this.taskRegistry = taskRegistry;
         this.eventBusProperties = eventBusProperties;
         this.rLock = rLock;
         this.msgSender = msgSender;
+        this.dictionary = dictionary;
         this.delayStreamKey = String.format(RedisConstant.BUS_DELAY_SUBSCRIBE_PREFIX, eventBusProperties.getEnv(), eventBusProperties.getServiceId());
         // 全部消息订阅者
         this.redisSubscribers = RedisListener.fullRedisSubscriber(subscribers, eventBusProperties.getEnv(), eventBusProperties.getServiceId());
@@ -155,26 +164,49 @@ public class RedisPendingMsgResendTask implements Runnable, Lifecycle {
             if (lastDelivery < eventBusProperties.getRedis().getDeliverTimeout()) {
                 return;
             }
-            // 通过streamOperations，直接读取这条pending消息，
-            List<ObjectRecord<String, String>> result = stringRedisTemplate
-                    .opsForStream().range(String.class, subscriber.getStreamKey(), Range.closed(recordId, recordId));
+            // 直接读取这条pending消息（字节）
+            byte[] streamKey = subscriber.getStreamKey().getBytes(StandardCharsets.UTF_8);
+            List<ByteRecord> result = stringRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                    connection.streamCommands().xRange(streamKey, Range.closed(recordId, recordId)));
             if (CollectionUtils.isEmpty(result)) {
                 acknowledge(subscriber, message.getId());
                 return;
             }
-            Request<?> request = Func.convertByJson(result.get(0).getValue());
-            request.setDeliverCount(request.getDeliverCount() + 1);
-            // 重新投递消息
-            if (subscriber.getType().isTimely()) {
-                request.setDeliverId(subscriber.getTrigger().getDeliverId());
-                msgSender.toSend(request);
+            Map<String, byte[]> fields = RedisRecordUtil.toFields(result.get(0).getValue());
+            if (RedisRecordUtil.isPayload(fields)) {
+                resendPayload(subscriber, CompressUtil.decompress(fields.get(RedisConstant.PAYLOAD)));
             } else {
-                msgSender.toSend(delayStreamKey, request);
+                // 只修改消息头，消息体按原始字节（可能为压缩数据）重新投递
+                Request<?> header = RedisRecordUtil.toHeader(fields, dictionary);
+                header.setDeliverCount(header.getDeliverCount() + 1);
+                String resendKey = delayStreamKey;
+                if (subscriber.getType().isTimely()) {
+                    header.setDeliverId(subscriber.getTrigger().getDeliverId());
+                    resendKey = String.format(RedisConstant.BUS_SUBSCRIBE_PREFIX, eventBusProperties.getEnv(), header.topic());
+                }
+                msgSender.toSend(resendKey, header, fields.get(RedisRecordUtil.BODY));
             }
             acknowledge(subscriber, message.getId());
         });
     }
 
+    /**
+     * 重新投递旧版单字段格式的消息
+     *
+     * @param subscriber 消费者
+     * @param payload    消息数据
+     */
+    private void resendPayload(RedisListener subscriber, byte[] payload) {
+        Request<?> request = Func.decodeRequest(payload, r -> Object.class);
+        request.setDeliverCount(request.getDeliverCount() + 1);
+        if (subscriber.getType().isTimely()) {
+            request.setDeliverId(subscriber.getTrigger().getDeliverId());
+            msgSender.toSend(request);
+        } else {
+            msgSender.toSend(delayStreamKey, request);
+        }
+    }
+
     /**
      * 确认消费
      *
@@ -0,0 +1,15 @@
+---
+--- 标识字典登记：值已存在时返回已有编号，否则分配新编号（版本号自增）
+---
+--- 字典key
+local dictKey = KEYS[1]
+--- 标识值
+local value = ARGV[1]
+local id = redis.call('HGET', dictKey, 's:' .. value)
+if id then
+    return tonumber(id)
+end
+id = redis.call('HINCRBY', dictKey, 'version', 1)
+redis.call('HSET', dictKey, 's:' .. value, id)
+redis.call('HSET', dictKey, 'i:' .. id, value)
+return id
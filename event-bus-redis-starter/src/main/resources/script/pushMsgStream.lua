@@ -10,6 +10,10 @@ local delayStreamKey = KEYS[2]
 local currentTimeMillis = ARGV[1]
 --- 最大推送消息数,默认10万数据
 local maxPushCount = ARGV[2] or 1000000
+--- 延时消息数据key前缀（与delayKey同一hash tag）
+--- 注：消息数据key由zset成员拼接，无法预先在KEYS中声明；集群模式下依赖同一hash tag落在同一slot，
+--- 不支持校验脚本key声明的代理（如部分云厂商集群代理），此时不能开启redis.delay-msg-hash
+local msgKeyPrefix = ARGV[3]
 --- 每次处理的最大消息数
 local msgCount = 1000
 
@@ -29,7 +33,16 @@ while pollCount >= 0 do
     local expiredValues = redis.call('zrangebyscore', delayKey, 0, currentTimeMillis, 'limit', 0, msgCount)
     if #expiredValues > 0 then
         for _, v in ipairs(expiredValues) do
-            redis.call('xadd', delayStreamKey, '*', 'payload', v)
+            local msgKey = msgKeyPrefix .. v
+            local fields = redis.call('hgetall', msgKey)
+            if #fields > 0 then
+                --- zset成员为消息编号，按原字段写入stream
+                redis.call('xadd', delayStreamKey, '*', unpack(fields))
+                redis.call('del', msgKey)
+            else
+                --- 旧版zset成员为完整消息
+                redis.call('xadd', delayStreamKey, '*', 'payload', v)
+            end
             redis.call('zrem', delayKey, v)
         end
     else
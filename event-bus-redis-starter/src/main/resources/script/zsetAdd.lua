@@ -7,14 +7,25 @@
 local delayKey = KEYS[1]
 --- timeout
 local timeout = ARGV[1]
---- 延时数据
-local jsBody = ARGV[2]
----- 添加数据
-redis.call('ZADD', delayKey, timeout, jsBody);
+if #KEYS == 1 then
+    ---- 旧版格式：zset成员为完整消息
+    redis.call('ZADD', delayKey, timeout, ARGV[2]);
+else
+    --- 延时消息数据key（hash）
+    local msgKey = KEYS[2]
+    --- 延时消息编号
+    local msgId = ARGV[2]
+    ---- 消息数据存储在hash中，zset只保存消息编号；先删除同名hash，字段不会与其他消息合并
+    redis.call('DEL', msgKey)
+    for i = 3, #ARGV, 2 do
+        redis.call('HSET', msgKey, ARGV[i], ARGV[i + 1])
+    end
+    redis.call('ZADD', delayKey, timeout, msgId);
+end
 
 --- 下个消息的过期时间
 local v = redis.call('zrange', delayKey, 0, 0, 'withscores');
 if v[1] ~= nil then
     return tonumber(v[2]);
 end
-return nil;
\ No newline at end of file
+return nil;